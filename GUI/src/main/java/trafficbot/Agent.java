@@ -0,0 +1,117 @@
+package trafficbot;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/*
+ * An actor hosted by the AgentRuntime: a drone pilot or a scenario controller with a thread of its own.
+ * The agent's body is ordinary blocking code (wait for the next tick, wait some ticks, read a message) and
+ * runs on a virtual thread where available, so thousands of agents cost little more than their mailboxes.
+ *
+ * Agents never touch the model directly. The simulation sends them messages through a bounded mailbox,
+ * and they change the model by posting actions that the simulation thread runs before its next tick.
+ * A mailbox that is full when a message arrives drops it, so a slow agent never holds up a tick.
+ */
+public abstract class Agent implements Runnable {
+    public static final int DEFAULT_MAILBOX_CAPACITY = 64;
+
+    final private BlockingQueue<AgentMessage> mailbox;
+    // Set by the runtime before the agent starts
+    private SimulationModel model;
+    private Thread thread;
+    // Latest tick seen, only touched by the agent's thread
+    private long tick;
+
+    // Constructor for an agent with a mailbox of the default size
+    protected Agent() {
+        this(DEFAULT_MAILBOX_CAPACITY);
+    }
+
+    protected Agent(int mailboxCapacity) {
+        this.mailbox = new ArrayBlockingQueue<>(mailboxCapacity);
+    }
+
+    // The agent's behaviour; it ends by returning or when the runtime interrupts it
+    protected abstract void act() throws InterruptedException;
+
+    // Tick message for this agent, built on the simulation thread at the end of a tick
+    protected AgentMessage observe(SimulationModel model, long tick) {
+        return AgentMessage.tick(tick, 0, 0);
+    }
+
+    // ID of the drone whose scans this agent is sent, or 0 to be sent every scan
+    protected int getDroneId() {
+        return 0;
+    }
+
+    // Called for each scan message that arrives while the agent waits for a tick
+    protected void onScan(AgentMessage scan) {
+    }
+
+    // Next message, waiting for one if the mailbox is empty
+    protected AgentMessage receive() throws InterruptedException {
+        return mailbox.take();
+    }
+
+    // Wait for the end of the next tick, handing scans that arrive first to onScan
+    protected AgentMessage awaitTick() throws InterruptedException {
+        while (true) {
+            AgentMessage message = receive();
+            if (message.isTick()) {
+                tick = message.getTick();
+                return message;
+            }
+            onScan(message);
+        }
+    }
+
+    // Wait until the given number of ticks have passed since the last one this agent saw
+    protected AgentMessage sleepTicks(long ticks) throws InterruptedException {
+        long until = tick + ticks;
+        AgentMessage message;
+        do {
+            message = awaitTick();
+        } while (message.getTick() < until);
+        return message;
+    }
+
+    // Change the model; the action runs on the simulation thread before the next tick
+    protected void post(Consumer<SimulationModel> action) {
+        SimulationModel target = model;
+        target.post(() -> action.accept(target));
+    }
+
+    // Latest tick this agent has seen
+    protected long getTick() {
+        return tick;
+    }
+
+    @Override
+    public final void run() {
+        try {
+            act();
+        } catch (InterruptedException e) {
+            // Stopped by the runtime
+        }
+    }
+
+    // Runtime side: offer a message without blocking; false if the mailbox is full
+    boolean deliver(AgentMessage message) {
+        return mailbox.offer(message);
+    }
+
+    void start(SimulationModel model, Thread thread) {
+        this.model = model;
+        this.thread = thread;
+        thread.start();
+    }
+
+    void stop() {
+        thread.interrupt();
+    }
+
+    Thread getThread() {
+        return thread;
+    }
+}
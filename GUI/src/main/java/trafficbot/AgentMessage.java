@@ -0,0 +1,45 @@
+package trafficbot;
+
+/*
+ * Message from the simulation to an agent.
+ * A tick message marks the end of a tick and carries the position of the agent's drone as it was then
+ * (zero for agents without one); a scan message reports a car newly scanned during a tick.
+ * Messages are immutable, so they can be handed from the simulation thread to an agent's thread as is.
+ */
+public final class AgentMessage {
+    public static final int TICK = 0;
+    public static final int SCAN = 1;
+
+    final private int kind;
+    final private long tick;
+    // Drone position for a tick, car and drone IDs for a scan
+    final private int first;
+    final private int second;
+
+    private AgentMessage(int kind, long tick, int first, int second) {
+        this.kind = kind;
+        this.tick = tick;
+        this.first = first;
+        this.second = second;
+    }
+
+    public static AgentMessage tick(long tick, int droneX, int droneY) {
+        return new AgentMessage(TICK, tick, droneX, droneY);
+    }
+
+    public static AgentMessage scan(long tick, int carID, int droneID) {
+        return new AgentMessage(SCAN, tick, carID, droneID);
+    }
+
+    public boolean isTick() { return kind == TICK; }
+    public boolean isScan() { return kind == SCAN; }
+    public long getTick() { return tick; }
+
+    // Tick messages
+    public int getDroneX() { return first; }
+    public int getDroneY() { return second; }
+
+    // Scan messages
+    public int getCarId() { return first; }
+    public int getDroneId() { return second; }
+}
@@ -0,0 +1,255 @@
+package trafficbot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Hosts the simulation's agents: one DroneAgent per drone of the fleet and the current scenario's
+ * controller, if it has one. Each agent gets its own thread - a virtual thread on Java 21 and later, a
+ * daemon platform thread before that - so agents are written as blocking code without tying up the
+ * simulation thread or the event thread.
+ *
+ * At the end of every tick the runtime hands each agent a tick message, and the tick's scans of the drone
+ * named by its getDroneId (every scan for agents that name none), without ever blocking; messages to a
+ * full mailbox are dropped and counted, and agents whose thread has finished get no more messages. While
+ * autopilot is off the drone agents get no ticks, so they wait and the drones stay under manual control.
+ * The runtime follows the model: when the fleet is laid out again or another scenario starts, the old
+ * agents are stopped and new ones started.
+ */
+public class AgentRuntime implements SimulationListener, AutoCloseable {
+    private static final long STOP_TIMEOUT_MILLIS = 1000;
+
+    final private ThreadFactory threads;
+    final private boolean virtual;
+    final private List<DroneAgent> droneAgents = new ArrayList<>();
+    // Agents by the drone ID whose scans they want, and agents that want every scan
+    private Agent[][] agentsByDrone = new Agent[0][];
+    private Agent[] agentsForAllScans = new Agent[0];
+    private ScenarioStrategy scenario;
+    private Agent scenarioAgent;
+    final private AtomicLong delivered = new AtomicLong();
+    final private AtomicLong dropped = new AtomicLong();
+    private long started;
+
+    // Constructor for a runtime on virtual threads where the JVM has them
+    public AgentRuntime() {
+        ThreadFactory factory = virtualThreadFactory();
+        this.virtual = factory != null;
+        this.threads = factory != null ? factory : platformThreadFactory();
+    }
+
+    // Host agents for the engine's model with -Dtrafficbot.agents=true; returns null when not configured
+    // Drones are then flown by their agents instead of the model's autopilot.
+    public static AgentRuntime attachConfigured(SimulationEngine engine) {
+        if (!Boolean.getBoolean("trafficbot.agents")) {
+            return null;
+        }
+        AgentRuntime runtime = new AgentRuntime();
+        engine.getModel().setAutopilot(Autopilot.HOLD);
+        engine.addListener(runtime);
+        System.out.println("Agents run on " + (runtime.isVirtual() ? "virtual" : "platform") + " threads");
+        return runtime;
+    }
+
+    // Whether agents get virtual threads
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    // Agents running now
+    public int getAgentCount() {
+        return droneAgents.size() + (scenarioAgent != null ? 1 : 0);
+    }
+
+    // Agents started since the runtime was created, including ones since replaced
+    public long getStarted() {
+        return started;
+    }
+
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    // Messages dropped because an agent's mailbox was full
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public List<DroneAgent> getDroneAgents() {
+        return droneAgents;
+    }
+
+    // Called on the simulation thread once the tick's phases have run
+    @Override
+    public void onTick(SimulationModel model, long tick) {
+        if (followFleet(model) | followScenario(model) | retireFinishedScenarioAgent()) {
+            routeScans();
+        }
+        // Scans first, so an agent has seen a tick's scans by the time it sees the tick
+        for (int i = 0; i < model.getScanCount(); i++) {
+            AgentMessage scan = AgentMessage.scan(tick, model.getScanCarId(i), model.getScanDroneId(i));
+            int droneID = scan.getDroneId();
+            if (droneID > 0 && droneID < agentsByDrone.length) {
+                for (Agent agent : agentsByDrone[droneID]) {
+                    send(agent, scan);
+                }
+            }
+            for (Agent agent : agentsForAllScans) {
+                send(agent, scan);
+            }
+        }
+        if (model.isAutopilotEnabled()) {
+            for (DroneAgent agent : droneAgents) {
+                send(agent, agent.observe(model, tick));
+            }
+        }
+        if (scenarioAgent != null) {
+            send(scenarioAgent, scenarioAgent.observe(model, tick));
+        }
+    }
+
+    private void send(Agent agent, AgentMessage message) {
+        // Nobody would ever take it out of the mailbox
+        if (!agent.getThread().isAlive()) {
+            return;
+        }
+        if (agent.deliver(message)) {
+            delivered.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    // Keep one agent per drone of the fleet, starting over when the fleet's drones were replaced
+    // Returns whether the agents changed.
+    private boolean followFleet(SimulationModel model) {
+        List<Drone> drones = model.getDrones();
+        boolean same = drones.size() == droneAgents.size();
+        for (int i = 0; same && i < drones.size(); i++) {
+            same = droneAgents.get(i).getDrone() == drones.get(i);
+        }
+        if (same) {
+            return false;
+        }
+        for (DroneAgent agent : droneAgents) {
+            agent.stop();
+        }
+        droneAgents.clear();
+        for (Drone drone : drones) {
+            DroneAgent agent = new DroneAgent(drone);
+            start(model, agent);
+            droneAgents.add(agent);
+        }
+        return true;
+    }
+
+    // Run the controller of the current scenario, replacing the previous scenario's
+    // Returns whether the agents changed.
+    private boolean followScenario(SimulationModel model) {
+        ScenarioStrategy current = model.getCurrentScenario();
+        if (current == scenario) {
+            return false;
+        }
+        if (scenarioAgent != null) {
+            scenarioAgent.stop();
+        }
+        scenario = current;
+        scenarioAgent = current != null ? current.createAgent() : null;
+        if (scenarioAgent != null) {
+            start(model, scenarioAgent);
+        }
+        return true;
+    }
+
+    // Forget the scenario's controller once it has finished, e.g. after it has seen what it waited for;
+    // the scenario itself carries on without one. Returns whether the agents changed.
+    private boolean retireFinishedScenarioAgent() {
+        if (scenarioAgent == null || scenarioAgent.getThread().isAlive()) {
+            return false;
+        }
+        scenarioAgent = null;
+        return true;
+    }
+
+    // Work out which agents each scan goes to from the drone ID every agent asks for
+    private void routeScans() {
+        List<Agent> agents = new ArrayList<>(droneAgents);
+        if (scenarioAgent != null) {
+            agents.add(scenarioAgent);
+        }
+        int maxID = 0;
+        for (Agent agent : agents) {
+            maxID = Math.max(maxID, agent.getDroneId());
+        }
+        agentsByDrone = new Agent[maxID + 1][];
+        for (int droneID = 0; droneID <= maxID; droneID++) {
+            List<Agent> routed = new ArrayList<>();
+            for (Agent agent : agents) {
+                if (agent.getDroneId() == droneID) {
+                    routed.add(agent);
+                }
+            }
+            agentsByDrone[droneID] = routed.toArray(new Agent[0]);
+        }
+        // Drone ID 0 stands for every scan
+        agentsForAllScans = agentsByDrone[0];
+    }
+
+    private void start(SimulationModel model, Agent agent) {
+        agent.start(model, threads.newThread(agent));
+        started++;
+    }
+
+    // Stop every agent and wait briefly for their threads to finish
+    @Override
+    public void close() {
+        List<Agent> agents = new ArrayList<>(droneAgents);
+        if (scenarioAgent != null) {
+            agents.add(scenarioAgent);
+        }
+        for (Agent agent : agents) {
+            agent.stop();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STOP_TIMEOUT_MILLIS);
+        try {
+            for (Agent agent : agents) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining > 0) {
+                    agent.getThread().join(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droneAgents.clear();
+        agentsByDrone = new Agent[0][];
+        agentsForAllScans = new Agent[0];
+        scenarioAgent = null;
+        scenario = null;
+    }
+
+    // Thread.ofVirtual().name("agent-", 0).factory(), looked up at run time so the code still builds and
+    // runs on Java 17; null when the JVM has no virtual threads
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "agent-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        AtomicLong count = new AtomicLong();
+        return task -> {
+            Thread thread = new Thread(task, "agent-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
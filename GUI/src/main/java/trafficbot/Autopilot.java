@@ -0,0 +1,16 @@
+package trafficbot;
+
+/*
+ * Autopilot Interface
+ * Steers one drone one step per tick while autopilot is enabled.
+ * Scenarios that fly the drones themselves, such as circling a crash, override ScenarioStrategy.updateDroneAuto instead.
+ */
+
+public interface Autopilot {
+    // Follow the drone's patrol route: the intersection corners, or its own sector for a fleet
+    Autopilot FOLLOW_ROUTE = SimulationModel::advanceDroneToNextWaypoint;
+    // Leave the drones where they are, e.g. while agents fly them
+    Autopilot HOLD = (model, drone) -> { };
+
+    void steer(SimulationModel model, Drone drone);
+}
@@ -0,0 +1,114 @@
+package trafficbot;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Stroke;
+import java.awt.image.BufferedImage;
+
+/*
+ * Renders the background for the simulation window, including roads and buildings.
+ * Larger maps are rendered a chunk at a time, only for the part of the world in view.
+ */
+
+public class BackgroundRenderer {
+    // Creates a BufferedImage representing the background of the simulation window.
+    public static BufferedImage createBackground(int width, int height) {
+        BufferedImage buffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = buffer.createGraphics();
+
+        // Fill background with grass color
+        g2d.setColor(Colors.GRASS_COLOR);
+        g2d.fillRect(0, 0, width, height);
+
+        // Draw roads and buildings onto the background
+        drawRoads(g2d, width, height);
+        drawBuildings(g2d);
+        //
+        g2d.dispose();
+        return buffer;
+    }
+
+    // Draws the roads and lane markings on the background.
+    private static void drawRoads(Graphics2D g2d, int width, int height) {
+        g2d.setColor(Colors.ROAD_COLOR);
+        int horizontalY = height/2 - Constants.ROAD_WIDTH/2;
+        int verticalX = width/2 - Constants.ROAD_WIDTH/2;
+
+        // Draw horizontal and vertical road surfaces
+        g2d.fillRect(0, horizontalY, width, Constants.ROAD_WIDTH);
+        g2d.fillRect(verticalX, 0, Constants.ROAD_WIDTH, height);
+
+        // Draw dashed white lane markings in the middle of the roads
+        g2d.setColor(Color.WHITE);
+        Stroke oldStroke = g2d.getStroke();
+        float[] dashPattern = {10, 15};
+        BasicStroke dashed = new BasicStroke(2, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, dashPattern, 0);
+        g2d.setStroke(dashed);
+
+        // Horizontal lane line
+        g2d.drawLine(0, horizontalY + Constants.ROAD_WIDTH/2, width, horizontalY + Constants.ROAD_WIDTH/2);
+
+        // Vertical lane line
+        g2d.drawLine(verticalX + Constants.ROAD_WIDTH/2, 0, verticalX + Constants.ROAD_WIDTH/2, height);
+        g2d.setStroke(oldStroke);
+    }
+
+    // Draws buildings on the background.
+    private static void drawBuildings(Graphics2D g2d) {
+        g2d.setColor(Colors.BUILDING_COLOR);
+
+        // The four buildings around the intersection
+        CityMap.INTERSECTION.visitBuildings(new Rectangle(0, 0, Constants.WINDOW_WIDTH, Constants.WINDOW_HEIGHT), g2d::fillRect);
+    }
+
+    // Renders the square of a map starting at (worldX, worldY) and span world pixels wide into an image of
+    // pixels by pixels, so chunks of the same span tile seamlessly at any zoom
+    public static void renderChunk(BufferedImage image, CityMap map, int worldX, int worldY, int span) {
+        Graphics2D g2d = image.createGraphics();
+        g2d.setColor(Colors.GRASS_COLOR);
+        g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+        double scale = (double) image.getWidth() / span;
+        g2d.scale(scale, scale);
+        g2d.translate(-worldX, -worldY);
+        Rectangle area = new Rectangle(worldX, worldY, span, span);
+        g2d.clip(area);
+
+        // Road surfaces first, then the lane markings on top of every crossing
+        g2d.setColor(Colors.ROAD_COLOR);
+        for (int i = 0; i < map.getHorizontalRoadCount(); i++) {
+            int y = map.getHorizontalRoadY(i);
+            if (y < worldY + span && y + Constants.ROAD_WIDTH > worldY) {
+                g2d.fillRect(0, y, map.getWidth(), Constants.ROAD_WIDTH);
+            }
+        }
+        for (int i = 0; i < map.getVerticalRoadCount(); i++) {
+            int x = map.getVerticalRoadX(i);
+            if (x < worldX + span && x + Constants.ROAD_WIDTH > worldX) {
+                g2d.fillRect(x, 0, Constants.ROAD_WIDTH, map.getHeight());
+            }
+        }
+        // Lines start on a whole dash period from the world edge, so the dashes line up across chunks
+        g2d.setColor(Color.WHITE);
+        float[] dashPattern = {10, 15};
+        int period = 25;
+        g2d.setStroke(new BasicStroke(2, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, dashPattern, 0));
+        for (int i = 0; i < map.getHorizontalRoadCount(); i++) {
+            int y = map.getHorizontalRoadY(i) + Constants.ROAD_WIDTH / 2;
+            if (y >= worldY - 1 && y <= worldY + span + 1) {
+                g2d.drawLine(Math.max(0, worldX - Math.floorMod(worldX, period)), y, Math.min(map.getWidth(), worldX + span + period), y);
+            }
+        }
+        for (int i = 0; i < map.getVerticalRoadCount(); i++) {
+            int x = map.getVerticalRoadX(i) + Constants.ROAD_WIDTH / 2;
+            if (x >= worldX - 1 && x <= worldX + span + 1) {
+                g2d.drawLine(x, Math.max(0, worldY - Math.floorMod(worldY, period)), x, Math.min(map.getHeight(), worldY + span + period));
+            }
+        }
+
+        g2d.setColor(Colors.BUILDING_COLOR);
+        map.visitBuildings(area, g2d::fillRect);
+        g2d.dispose();
+    }
+}
@@ -0,0 +1,113 @@
+package trafficbot;
+
+/*
+ * The Car class represents a car in the simulation.
+ * It includes properties such as position, speed, direction, and status (in traffic or crashed).
+ * The state itself lives in a CarStore; a Car is a thin view onto one slot of that store. A car that is not
+ * in a store (not yet added, or removed) keeps its state in its own fields.
+ */
+
+public class Car {
+    // Constants for car movement and behavior
+    public enum Direction { RIGHT, LEFT, DOWN, UP }
+
+    // Store and slot holding this car's properties, or null while the car is detached
+    private CarStore store;
+    private int slot;
+    // The car's own copy of its properties while it is not in a store
+    private int x, y;
+    private int id;
+    private int speed;
+    private Direction direction;
+    private boolean inTraffic;
+    private boolean crashed;
+
+    // Constructor to initialize the car's properties
+    // The car holds them itself until it is added to a model.
+    public Car(int x, int y, int id, int speed, Direction direction) {
+        this.x = x;
+        this.y = y;
+        this.id = id;
+        this.speed = speed;
+        this.direction = direction;
+    }
+
+    // Constructor for a view onto an existing slot
+    Car(CarStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+    }
+
+    // Point this view at a (possibly new) store and slot
+    void bind(CarStore newStore, int newSlot) {
+        this.store = newStore;
+        this.slot = newSlot;
+    }
+
+    // Store and slot this view currently reads from; the store is null while the car is detached
+    CarStore getStore() { return store; }
+    int getSlot() { return slot; }
+
+    // Copy the current state into the car's own fields once it leaves its store
+    void detach() {
+        x = store.getX(slot);
+        y = store.getY(slot);
+        id = store.getId(slot);
+        speed = store.getSpeed(slot);
+        direction = store.getDirection(slot);
+        inTraffic = store.isInTraffic(slot);
+        crashed = store.isCrashed(slot);
+        store = null;
+    }
+
+    // Move the car one step in its direction, wrapping around the screen edges
+    public void move() {
+        if (store != null) {
+            store.move(slot);
+            return;
+        }
+        if (crashed) {
+            return;
+        }
+        switch (direction) {
+            case RIGHT -> x += speed;
+            case LEFT -> x -= speed;
+            case DOWN -> y += speed;
+            case UP -> y -= speed;
+        }
+        if (x > Constants.WINDOW_WIDTH) {
+            x = 0;
+        }
+        if (x < 0) {
+            x = Constants.WINDOW_WIDTH;
+        }
+        if (y > Constants.WINDOW_HEIGHT) {
+            y = 0;
+        }
+        if (y < 0) {
+            y = Constants.WINDOW_HEIGHT;
+        }
+    }
+
+    public int getX() { return store != null ? store.getX(slot) : x; }
+    public int getY() { return store != null ? store.getY(slot) : y; }
+    public int getId() { return store != null ? store.getId(slot) : id; }
+    public int getSpeed() { return store != null ? store.getSpeed(slot) : speed; }
+    public Direction getDirection() { return store != null ? store.getDirection(slot) : direction; }
+    public boolean isInTraffic() { return store != null ? store.isInTraffic(slot) : inTraffic; }
+    public void setInTraffic(boolean inTraffic) {
+        if (store != null) {
+            store.setInTraffic(slot, inTraffic);
+        } else {
+            this.inTraffic = inTraffic;
+        }
+    }
+    public boolean isCrashed() { return store != null ? store.isCrashed(slot) : crashed; }
+    public void setCrashed(boolean crashed) {
+        if (store != null) {
+            store.setCrashed(slot, crashed);
+        } else {
+            this.crashed = crashed;
+        }
+    }
+}
\ No newline at end of file
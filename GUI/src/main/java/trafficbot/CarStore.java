@@ -0,0 +1,333 @@
+package trafficbot;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * CarStore class for the Traffic Bot Simulator
+ * Holds every car's state in parallel primitive arrays (struct of arrays), indexed by slot.
+ * Slots are dense: removing a car moves the last car into the freed slot.
+ * The arrays never shrink, so the slots past size() are a pool: a car added after others were removed
+ * reuses their storage. Once the population has levelled off, cars added by value (the primitive add)
+ * allocate nothing; adding a Car object, or asking for a view of a newly added car, still allocates
+ * that one Car.
+ * Car objects are thin views onto a slot and are only created when a caller asks for one.
+ */
+public class CarStore {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final Car.Direction[] DIRECTIONS = Car.Direction.values();
+
+    private int size;
+    private int[] ids;
+    private int[] x;
+    private int[] y;
+    private int[] speed;
+    private byte[] direction;
+    private boolean[] inTraffic;
+    private boolean[] crashed;
+    // Tick each car was spawned at, for retiring cars by age
+    private long[] spawnTicks;
+    private Car[] views;
+    // Next-state buffers for the parallel tick, allocated on first use
+    private int[] nextX;
+    private int[] nextY;
+    private boolean[] nextInTraffic;
+    private final List<Car> viewList;
+    // Cars wrap around at the edges of the world
+    private int worldWidth = Constants.WINDOW_WIDTH;
+    private int worldHeight = Constants.WINDOW_HEIGHT;
+    // When off, cars drive on past the edges (until the model despawns them)
+    private boolean wrapping = true;
+    // Cars added and removed since the store was created
+    private long added;
+    private long removed;
+
+    // Constructor for an empty store
+    public CarStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CarStore(int capacity) {
+        capacity = Math.max(1, capacity);
+        ids = new int[capacity];
+        x = new int[capacity];
+        y = new int[capacity];
+        speed = new int[capacity];
+        direction = new byte[capacity];
+        inTraffic = new boolean[capacity];
+        crashed = new boolean[capacity];
+        spawnTicks = new long[capacity];
+        views = new Car[capacity];
+        viewList = new AbstractList<Car>() {
+            @Override
+            public Car get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                }
+                return view(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Number of cars in the store
+    public int size() {
+        return size;
+    }
+
+    // Number of cars the arrays can hold before they grow
+    public int capacity() {
+        return ids.length;
+    }
+
+    // Add a car and return its slot
+    public int add(int carX, int carY, int id, int carSpeed, Car.Direction carDirection) {
+        if (size == ids.length) {
+            grow();
+        }
+        int slot = size++;
+        ids[slot] = id;
+        x[slot] = carX;
+        y[slot] = carY;
+        speed[slot] = carSpeed;
+        direction[slot] = (byte) carDirection.ordinal();
+        inTraffic[slot] = false;
+        crashed[slot] = false;
+        spawnTicks[slot] = 0;
+        views[slot] = null;
+        added++;
+        return slot;
+    }
+
+    // Copy a car (usually a detached one) into this store and bind the view to its new slot
+    public int add(Car car) {
+        int slot = add(car.getX(), car.getY(), car.getId(), car.getSpeed(), car.getDirection());
+        inTraffic[slot] = car.isInTraffic();
+        crashed[slot] = car.isCrashed();
+        attach(slot, car);
+        return slot;
+    }
+
+    // Make the given car the view for a slot
+    void attach(int slot, Car car) {
+        views[slot] = car;
+        car.bind(this, slot);
+    }
+
+    // Remove the car in a slot by moving the last car into it
+    // Returns the slot the moved car came from, or -1 if nothing moved.
+    public int remove(int slot) {
+        Car view = views[slot];
+        if (view != null) {
+            view.detach();
+        }
+        int last = --size;
+        removed++;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            x[slot] = x[last];
+            y[slot] = y[last];
+            speed[slot] = speed[last];
+            direction[slot] = direction[last];
+            inTraffic[slot] = inTraffic[last];
+            crashed[slot] = crashed[last];
+            spawnTicks[slot] = spawnTicks[last];
+            views[slot] = views[last];
+            if (views[slot] != null) {
+                views[slot].bind(this, slot);
+            }
+        }
+        views[last] = null;
+        return slot != last ? last : -1;
+    }
+
+    // Remove every car; existing views keep their last values
+    public void clear() {
+        for (int slot = 0; slot < size; slot++) {
+            if (views[slot] != null) {
+                views[slot].detach();
+                views[slot] = null;
+            }
+        }
+        removed += size;
+        size = 0;
+    }
+
+    // Size of the world cars wrap around in
+    public void setWorldSize(int width, int height) {
+        worldWidth = width;
+        worldHeight = height;
+    }
+
+    // Whether cars wrap around at the world edges (the default) or drive on out of the world
+    public boolean isWrapping() {
+        return wrapping;
+    }
+
+    public void setWrapping(boolean wrapping) {
+        this.wrapping = wrapping;
+    }
+
+    // Whether the car in a slot has driven past an edge of the world
+    public boolean isOutsideWorld(int slot) {
+        return x[slot] < 0 || x[slot] > worldWidth || y[slot] < 0 || y[slot] > worldHeight;
+    }
+
+    // Cars ever added to the store, and cars removed from it again
+    public long getAdded() {
+        return added;
+    }
+
+    public long getRemoved() {
+        return removed;
+    }
+
+    // Move one car a single step in its direction, wrapping around the world edges if wrapping is on
+    public void move(int slot) {
+        if (crashed[slot]) {
+            return;
+        }
+        int carX = x[slot];
+        int carY = y[slot];
+        switch (direction[slot]) {
+            case 0 -> carX += speed[slot]; // RIGHT
+            case 1 -> carX -= speed[slot]; // LEFT
+            case 2 -> carY += speed[slot]; // DOWN
+            case 3 -> carY -= speed[slot]; // UP
+        }
+        if (wrapping) {
+            if (carX > worldWidth) {
+                carX = 0;
+            }
+            if (carX < 0) {
+                carX = worldWidth;
+            }
+            if (carY > worldHeight) {
+                carY = 0;
+            }
+            if (carY < 0) {
+                carY = worldHeight;
+            }
+        }
+        x[slot] = carX;
+        y[slot] = carY;
+    }
+
+    // Compute the next position of every slot in [from, to) into the next-state buffers
+    // Only the current positions are read, so slices can run on any thread in any order.
+    public void moveInto(int from, int to) {
+        for (int slot = from; slot < to; slot++) {
+            int carX = x[slot];
+            int carY = y[slot];
+            if (!crashed[slot]) {
+                switch (direction[slot]) {
+                    case 0 -> carX += speed[slot]; // RIGHT
+                    case 1 -> carX -= speed[slot]; // LEFT
+                    case 2 -> carY += speed[slot]; // DOWN
+                    case 3 -> carY -= speed[slot]; // UP
+                }
+                if (wrapping) {
+                    if (carX > worldWidth) {
+                        carX = 0;
+                    }
+                    if (carX < 0) {
+                        carX = worldWidth;
+                    }
+                    if (carY > worldHeight) {
+                        carY = 0;
+                    }
+                    if (carY < 0) {
+                        carY = worldHeight;
+                    }
+                }
+            }
+            nextX[slot] = carX;
+            nextY[slot] = carY;
+        }
+    }
+
+    // Make sure the next-state buffers exist and match the current capacity
+    public void ensureNextBuffers() {
+        if (nextX == null || nextX.length != ids.length) {
+            nextX = new int[ids.length];
+            nextY = new int[ids.length];
+            nextInTraffic = new boolean[ids.length];
+        }
+    }
+
+    // Publish the positions computed by moveInto
+    public void swapPositions() {
+        int[] swap = x;
+        x = nextX;
+        nextX = swap;
+        swap = y;
+        y = nextY;
+        nextY = swap;
+    }
+
+    // Stage a traffic flag for swapTraffic
+    public void setNextInTraffic(int slot, boolean value) {
+        nextInTraffic[slot] = value;
+    }
+
+    // Publish the traffic flags staged with setNextInTraffic
+    public void swapTraffic() {
+        boolean[] swap = inTraffic;
+        inTraffic = nextInTraffic;
+        nextInTraffic = swap;
+    }
+
+    // Getters and setters by slot
+    public int getId(int slot) { return ids[slot]; }
+    public int getX(int slot) { return x[slot]; }
+    public int getY(int slot) { return y[slot]; }
+    public int getSpeed(int slot) { return speed[slot]; }
+    public Car.Direction getDirection(int slot) { return DIRECTIONS[direction[slot]]; }
+    public boolean isInTraffic(int slot) { return inTraffic[slot]; }
+    public void setInTraffic(int slot, boolean value) { inTraffic[slot] = value; }
+    public boolean isCrashed(int slot) { return crashed[slot]; }
+    public void setCrashed(int slot, boolean value) { crashed[slot] = value; }
+    public long getSpawnTick(int slot) { return spawnTicks[slot]; }
+    public void setSpawnTick(int slot, long tick) { spawnTicks[slot] = tick; }
+    public void setPosition(int slot, int newX, int newY) {
+        x[slot] = newX;
+        y[slot] = newY;
+    }
+
+    // Car view for a slot, created on first use and reused afterwards
+    public Car view(int slot) {
+        Car car = views[slot];
+        if (car == null) {
+            car = new Car(this, slot);
+            views[slot] = car;
+        }
+        return car;
+    }
+
+    // Read-only list of car views, backed by the store
+    public List<Car> asList() {
+        return viewList;
+    }
+
+    // Grow all arrays by half again, so adds are amortized O(1)
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1) + 1;
+        ids = Arrays.copyOf(ids, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        inTraffic = Arrays.copyOf(inTraffic, capacity);
+        crashed = Arrays.copyOf(crashed, capacity);
+        spawnTicks = Arrays.copyOf(spawnTicks, capacity);
+        views = Arrays.copyOf(views, capacity);
+        nextX = null;
+        nextY = null;
+        nextInTraffic = null;
+    }
+}
@@ -0,0 +1,90 @@
+package trafficbot;
+
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Least-recently-used cache of rasterized background chunks for one map.
+ * A chunk is CHUNK_PIXELS square on screen and covers CHUNK_PIXELS / scale world pixels at a zoom level,
+ * so the same chunk is reused for as long as the view lingers around it. Chunks are rendered the first time
+ * they are asked for and the least recently drawn one is dropped once the cache is full; its image is
+ * rendered over for the next chunk instead of allocating a new one. Memory is bounded by the capacity,
+ * whatever the size of the map.
+ */
+public class ChunkCache {
+    public static final int CHUNK_PIXELS = 256;
+    // Enough chunks to cover a large window about twice over
+    public static final int DEFAULT_CAPACITY = 96;
+
+    private final CityMap map;
+    private final LinkedHashMap<Long, BufferedImage> chunks;
+    private BufferedImage spare;
+    private long rendered;
+
+    // Constructor for an empty cache of the default size
+    public ChunkCache(CityMap map) {
+        this(map, DEFAULT_CAPACITY);
+    }
+
+    public ChunkCache(CityMap map, int capacity) {
+        this.map = map;
+        // Access order makes iteration order least recently used first
+        this.chunks = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+                if (size() > capacity) {
+                    spare = eldest.getValue();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public CityMap getMap() {
+        return map;
+    }
+
+    // Number of chunks rendered so far, including ones rendered again after being evicted
+    public long getRenderedCount() {
+        return rendered;
+    }
+
+    public int size() {
+        return chunks.size();
+    }
+
+    // The chunk at column cx and row cy of the grid of chunks at a zoom level, rendering it if needed
+    // Zoom level z shows the world at scale 2^z.
+    public BufferedImage get(int zoomLevel, int cx, int cy) {
+        long key = key(zoomLevel, cx, cy);
+        BufferedImage image = chunks.get(key);
+        if (image == null) {
+            image = spare != null ? spare : SpriteCache.createImage(CHUNK_PIXELS, CHUNK_PIXELS, Transparency.OPAQUE);
+            spare = null;
+            int span = span(zoomLevel);
+            BackgroundRenderer.renderChunk(image, map, cx * span, cy * span, span);
+            rendered++;
+            chunks.put(key, image);
+        }
+        return image;
+    }
+
+    // World pixels covered by a chunk at a zoom level
+    public static int span(int zoomLevel) {
+        return zoomLevel >= 0 ? CHUNK_PIXELS >> zoomLevel : CHUNK_PIXELS << -zoomLevel;
+    }
+
+    // Drop every chunk, e.g. after the look of the map changed
+    public void clear() {
+        chunks.clear();
+        spare = null;
+    }
+
+    // 8 bits of zoom level, 28 bits each of column and row
+    private static long key(int zoomLevel, int cx, int cy) {
+        return ((long) (zoomLevel & 0xFF) << 56) | ((long) (cx & 0xFFFFFFF) << 28) | (cy & 0xFFFFFFF);
+    }
+}
@@ -0,0 +1,169 @@
+package trafficbot;
+
+import java.awt.Rectangle;
+
+/*
+ * Road network of the world the cars drive in: straight roads crossing in a grid, with buildings on the
+ * blocks between them. Every road runs the full width or height of the world, so cars wrapping around an
+ * edge stay on their lane.
+ *
+ * INTERSECTION is the single crossing of the original window. CityMap.grid builds a downtown of square
+ * blocks many screens wide; its buildings are derived from each block's coordinates whenever they are
+ * drawn, so a map only stores where its roads are and its size does not depend on how big the city is.
+ */
+public class CityMap {
+    public static final int DEFAULT_BLOCK_SIZE = 400;
+    // Lanes sit a quarter of the way in from each side of a road
+    public static final int NEAR_LANE_OFFSET = Constants.ROAD_WIDTH / 4 - Constants.CAR_SIZE / 2;
+    public static final int FAR_LANE_OFFSET = 3 * Constants.ROAD_WIDTH / 4 - Constants.CAR_SIZE / 2;
+    // Gap between a road and the buildings of a block, and between the buildings of a block
+    private static final int SETBACK = 20;
+
+    // The four buildings around the original intersection
+    private static final int[][] INTERSECTION_BUILDINGS = {
+        { 50, 100, 250, 100 },
+        { 545, 50, 150, 180 },
+        { 50, 350, 175, 180 },
+        { 550, 350, 130, 130 }
+    };
+
+    public static final CityMap INTERSECTION = new CityMap(Constants.WINDOW_WIDTH, Constants.WINDOW_HEIGHT,
+            new int[] { Constants.HORIZONTAL_ROAD_Y }, new int[] { Constants.VERTICAL_ROAD_X }, 0, INTERSECTION_BUILDINGS);
+
+    // Receives the buildings of an area, one rectangle at a time
+    public interface BuildingVisitor {
+        void building(int x, int y, int width, int height);
+    }
+
+    private final int width;
+    private final int height;
+    // Top edge of each horizontal road and left edge of each vertical road, in increasing order
+    private final int[] roadYs;
+    private final int[] roadXs;
+    // Side of a generated block, or 0 when the buildings are fixed
+    private final int blockSize;
+    private final int[][] fixedBuildings;
+
+    private CityMap(int width, int height, int[] roadYs, int[] roadXs, int blockSize, int[][] fixedBuildings) {
+        this.width = width;
+        this.height = height;
+        this.roadYs = roadYs;
+        this.roadXs = roadXs;
+        this.blockSize = blockSize;
+        this.fixedBuildings = fixedBuildings;
+    }
+
+    // A downtown of blocksX by blocksY square blocks with a road through the middle of each row and column
+    public static CityMap grid(int blocksX, int blocksY) {
+        return grid(blocksX, blocksY, DEFAULT_BLOCK_SIZE);
+    }
+
+    public static CityMap grid(int blocksX, int blocksY, int blockSize) {
+        if (blocksX < 1 || blocksY < 1 || blockSize < 2 * Constants.ROAD_WIDTH) {
+            throw new IllegalArgumentException("City needs at least one block of at least twice the road width");
+        }
+        int[] roadYs = new int[blocksY];
+        int[] roadXs = new int[blocksX];
+        for (int i = 0; i < blocksY; i++) {
+            roadYs[i] = i * blockSize + blockSize / 2 - Constants.ROAD_WIDTH / 2;
+        }
+        for (int i = 0; i < blocksX; i++) {
+            roadXs[i] = i * blockSize + blockSize / 2 - Constants.ROAD_WIDTH / 2;
+        }
+        return new CityMap(blocksX * blockSize, blocksY * blockSize, roadYs, roadXs, blockSize, null);
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    // Roads, counted and located by their top or left edge
+    public int getHorizontalRoadCount() { return roadYs.length; }
+    public int getVerticalRoadCount() { return roadXs.length; }
+    public int getHorizontalRoadY(int index) { return roadYs[index]; }
+    public int getVerticalRoadX(int index) { return roadXs[index]; }
+
+    // Whether a point lies on any road
+    public boolean isOnRoad(int x, int y) {
+        return nearestRoad(roadYs, y) >= 0 || nearestRoad(roadXs, x) >= 0;
+    }
+
+    // Whether a y coordinate lies on a horizontal road, or an x coordinate on a vertical one
+    public boolean isOnHorizontalRoad(int y) {
+        return nearestRoad(roadYs, y) >= 0;
+    }
+
+    public boolean isOnVerticalRoad(int x) {
+        return nearestRoad(roadXs, x) >= 0;
+    }
+
+    // Index of the road whose band [edge, edge + ROAD_WIDTH) holds the coordinate, or -1
+    private static int nearestRoad(int[] edges, int coordinate) {
+        int low = 0;
+        int high = edges.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (edges[middle] > coordinate) {
+                high = middle - 1;
+            } else if (edges[middle] + Constants.ROAD_WIDTH <= coordinate) {
+                low = middle + 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    // Report every building that overlaps an area
+    public void visitBuildings(Rectangle area, BuildingVisitor visitor) {
+        if (fixedBuildings != null) {
+            for (int[] building : fixedBuildings) {
+                if (area.intersects(building[0], building[1], building[2], building[3])) {
+                    visitor.building(building[0], building[1], building[2], building[3]);
+                }
+            }
+            return;
+        }
+        // Lot (bx, by) is the square between roads bx and bx + 1 and roads by and by + 1; the lots of
+        // index -1 and the last index are cut in half by the edges of the world
+        int half = blockSize / 2 + Constants.ROAD_WIDTH / 2;
+        int firstX = Math.max(-1, Math.floorDiv(area.x - half, blockSize));
+        int lastX = Math.min(roadXs.length - 1, Math.floorDiv(area.x + area.width - half, blockSize));
+        int firstY = Math.max(-1, Math.floorDiv(area.y - half, blockSize));
+        int lastY = Math.min(roadYs.length - 1, Math.floorDiv(area.y + area.height - half, blockSize));
+        Rectangle world = new Rectangle(0, 0, width, height);
+        for (int by = firstY; by <= lastY; by++) {
+            for (int bx = firstX; bx <= lastX; bx++) {
+                visitLot(bx, by, half, area, world, visitor);
+            }
+        }
+    }
+
+    // Up to four buildings per lot, one per quarter, sized and left out (as small parks) by a hash of the lot
+    private void visitLot(int bx, int by, int half, Rectangle area, Rectangle world, BuildingVisitor visitor) {
+        int lotX = bx * blockSize + half + SETBACK;
+        int lotY = by * blockSize + half + SETBACK;
+        int quarter = (blockSize - Constants.ROAD_WIDTH - 2 * SETBACK) / 2;
+        long hash = mix(bx * 0x9E3779B97F4A7C15L + by);
+        for (int q = 0; q < 4; q++) {
+            int bits = (int) (hash >>> (q * 16)) & 0xFFFF;
+            if (bits % 7 == 0) {
+                continue;
+            }
+            int buildingWidth = (quarter - SETBACK / 2) * (55 + bits % 46) / 100;
+            int buildingHeight = (quarter - SETBACK / 2) * (55 + (bits >>> 8) % 46) / 100;
+            int x = lotX + (q % 2) * (quarter + SETBACK / 2);
+            int y = lotY + (q / 2) * (quarter + SETBACK / 2);
+            Rectangle building = new Rectangle(x, y, buildingWidth, buildingHeight).intersection(world);
+            if (!building.isEmpty() && area.intersects(building)) {
+                visitor.building(building.x, building.y, building.width, building.height);
+            }
+        }
+    }
+
+    // SplitMix64 finaliser, so neighbouring lots look unrelated
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,79 @@
+package trafficbot;
+
+import java.util.Random;
+
+/*
+ * City scenario for the simulation.
+ * Traffic on a downtown grid of blocks many screens wide: every road has a lane each way, filled with
+ * cars at random spacing and speed. Drag the view to pan around the city and use the mouse wheel to zoom.
+ */
+
+public class CityScenario implements ScenarioStrategy {
+    // Default downtown: 24 by 24 blocks, twelve windows wide and sixteen high
+    private static final int DEFAULT_BLOCKS = 24;
+    // Average distance between cars on a lane
+    private static final int CAR_SPACING = 160;
+
+    final private CityMap map;
+
+    // Constructor for the default downtown
+    public CityScenario() {
+        this(DEFAULT_BLOCKS, DEFAULT_BLOCKS);
+    }
+
+    public CityScenario(int blocksX, int blocksY) {
+        this.map = CityMap.grid(blocksX, blocksY);
+    }
+
+    @Override
+    public CityMap getMap() {
+        return map;
+    }
+
+    @Override
+    // Clear the city and fill every lane with traffic
+    public void activate(SimulationModel model) {
+        Database db = model.getDatabase();
+        if (db.getSize() > 0) {
+            db.clear(model.getTick());
+        }
+        model.clearCars();
+        Random random = new Random(420);
+        int nextCarId = 1;
+        // Horizontal roads: the upper lane drives left, the lower lane right
+        for (int road = 0; road < map.getHorizontalRoadCount(); road++) {
+            int y = map.getHorizontalRoadY(road);
+            nextCarId = fillLane(model, random, nextCarId, map.getWidth(), y + CityMap.NEAR_LANE_OFFSET, Car.Direction.LEFT);
+            nextCarId = fillLane(model, random, nextCarId, map.getWidth(), y + CityMap.FAR_LANE_OFFSET, Car.Direction.RIGHT);
+        }
+        // Vertical roads: the left lane drives down, the right lane up
+        for (int road = 0; road < map.getVerticalRoadCount(); road++) {
+            int x = map.getVerticalRoadX(road);
+            nextCarId = fillLane(model, random, nextCarId, map.getHeight(), x + CityMap.NEAR_LANE_OFFSET, Car.Direction.DOWN);
+            nextCarId = fillLane(model, random, nextCarId, map.getHeight(), x + CityMap.FAR_LANE_OFFSET, Car.Direction.UP);
+        }
+        System.out.println("City Scenario Activated! " + map.getWidth() + " x " + map.getHeight() + " city, "
+                + (nextCarId - 1) + " cars");
+    }
+
+    // Place cars along one lane at random gaps averaging CAR_SPACING; returns the next free car ID
+    private static int fillLane(SimulationModel model, Random random, int nextCarId, int length, int lane, Car.Direction direction) {
+        boolean horizontal = direction == Car.Direction.LEFT || direction == Car.Direction.RIGHT;
+        int position = random.nextInt(CAR_SPACING);
+        while (position < length) {
+            int speed = 1 + random.nextInt(3);
+            if (horizontal) {
+                model.addCar(position, lane, nextCarId++, speed, direction);
+            } else {
+                model.addCar(lane, position, nextCarId++, speed, direction);
+            }
+            position += Constants.CAR_SIZE + random.nextInt(2 * (CAR_SPACING - Constants.CAR_SIZE));
+        }
+        return nextCarId;
+    }
+
+    @Override
+    // Nothing runs in the background
+    public void deactivate() {
+    }
+}
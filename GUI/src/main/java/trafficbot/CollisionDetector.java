@@ -0,0 +1,194 @@
+package trafficbot;
+
+import java.util.Arrays;
+
+/*
+ * Sweep-and-prune collision detection over the cars' CAR_SIZE bounding boxes.
+ * Every car is one entry in an array of longs packing its x, y and slot, so sorting the array sorts the
+ * cars by x and then y. The array is kept from tick to tick: cars only move a few pixels, so an insertion
+ * sort puts it back in order in close to linear time (a full sort is used instead when too much moved,
+ * e.g. after a scenario change).
+ *
+ * The sweep walks the cars in x order and only looks ahead while the next car's box can still overlap on x.
+ * Cars with the same x (a vertical lane) are sorted by y, so within each such run the search is pruned on
+ * the y axis too: a binary search finds the first car that can overlap and the scan stops at the first that
+ * cannot. Crowded lanes on either axis therefore cost about n log n plus the overlaps actually found.
+ *
+ * Overlapping cars are marked crashed and stop; a crash event is reported for every pair in which at
+ * least one car was still moving.
+ */
+public class CollisionDetector {
+    // Receives each new crash: the slots of the two cars involved
+    public interface CrashListener {
+        void onCrash(int slot, int otherSlot);
+    }
+
+    private static final int COORDINATE_BITS = 20;
+    private static final int SLOT_BITS = 64 - 2 * COORDINATE_BITS;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+    // y is biased so slightly negative values still sort correctly
+    private static final int BIAS = 1 << (COORDINATE_BITS - 1);
+    // Insertion sort gives up and sorts from scratch after this many shifts per car
+    private static final int MAX_SHIFTS_PER_CAR = 8;
+    // Columns up to this long are searched with a plain scan
+    private static final int SHORT_COLUMN = 8;
+
+    private long[] entries = new long[64];
+    // Index just past the run of entries sharing each entry's x
+    private int[] columnEnds = new int[64];
+    private int count;
+    private long overlaps;
+    private long fullSorts;
+
+    // Overlapping pairs found and sorts started from scratch, for benchmarks and monitoring
+    public long getOverlaps() {
+        return overlaps;
+    }
+
+    public long getFullSorts() {
+        return fullSorts;
+    }
+
+    // Find every pair of overlapping boxes, crash the cars and report the new crashes
+    // Returns the number of crash events reported.
+    public int detect(CarStore cars, CrashListener listener) {
+        sync(cars);
+        sort();
+        findColumns();
+        int events = 0;
+        for (int i = 0; i < count; i++) {
+            long entry = entries[i];
+            int x = xOf(entry);
+            int y = yOf(entry);
+            int j = i + 1;
+            while (j < count) {
+                long other = entries[j];
+                int otherX = xOf(other);
+                if (otherX >= x + Constants.CAR_SIZE) {
+                    break;
+                }
+                int columnEnd = columnEnds[j];
+                if (columnEnd == j + 1) {
+                    // A column of one car, the usual case away from vertical lanes
+                    if (Math.abs(yOf(other) - y) < Constants.CAR_SIZE) {
+                        overlaps++;
+                        events += crash(cars, slotOf(entry), slotOf(other), listener);
+                    }
+                    j++;
+                    continue;
+                }
+                // First car of the column whose box reaches down to this one; the column holding this
+                // car is already past it in y order
+                int k = otherX == x ? j : firstAtOrBelow(j, columnEnd, y - Constants.CAR_SIZE + 1);
+                for (; k < columnEnd && yOf(entries[k]) < y + Constants.CAR_SIZE; k++) {
+                    overlaps++;
+                    events += crash(cars, slotOf(entry), slotOf(entries[k]), listener);
+                }
+                j = columnEnd;
+            }
+        }
+        return events;
+    }
+
+    // Mark a pair crashed; only a pair that was not already a wreck on both sides counts as a new crash
+    private static int crash(CarStore cars, int slot, int other, CrashListener listener) {
+        if (cars.isCrashed(slot) && cars.isCrashed(other)) {
+            return 0;
+        }
+        cars.setCrashed(slot, true);
+        cars.setCrashed(other, true);
+        listener.onCrash(slot, other);
+        return 1;
+    }
+
+    // Make the entries hold exactly slots 0 to size - 1 with their current positions
+    // Slots at or past the new size are dropped and new slots appended; a removal moves another car into
+    // the freed slot, which the sort then moves to its place.
+    private void sync(CarStore cars) {
+        int size = cars.size();
+        if (entries.length < size) {
+            entries = Arrays.copyOf(entries, Math.max(size, entries.length * 2));
+            columnEnds = new int[entries.length];
+        }
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = slotOf(entries[i]);
+            if (slot < size) {
+                entries[kept++] = pack(cars.getX(slot), cars.getY(slot), slot);
+            }
+        }
+        for (int slot = kept; slot < size; slot++) {
+            entries[slot] = pack(cars.getX(slot), cars.getY(slot), slot);
+        }
+        count = size;
+    }
+
+    // Insertion sort, which is close to linear on the nearly sorted order from the last tick
+    private void sort() {
+        long budget = (long) MAX_SHIFTS_PER_CAR * count;
+        for (int i = 1; i < count; i++) {
+            long entry = entries[i];
+            int j = i - 1;
+            while (j >= 0 && entries[j] > entry) {
+                entries[j + 1] = entries[j];
+                j--;
+                if (--budget < 0) {
+                    entries[j + 1] = entry;
+                    Arrays.sort(entries, 0, count);
+                    fullSorts++;
+                    return;
+                }
+            }
+            entries[j + 1] = entry;
+        }
+    }
+
+    // Mark where each run of entries sharing x ends, walking backwards so every run is scanned once
+    private void findColumns() {
+        for (int i = count - 1; i >= 0; i--) {
+            columnEnds[i] = i + 1 < count && xOf(entries[i + 1]) == xOf(entries[i]) ? columnEnds[i + 1] : i + 1;
+        }
+    }
+
+    // First entry in [from, to) with y at least minY; entries of one column are sorted by y
+    // Most columns hold a car or two, which a plain scan gets through faster than a binary search
+    private int firstAtOrBelow(int from, int to, int minY) {
+        if (to - from <= SHORT_COLUMN) {
+            while (from < to && yOf(entries[from]) < minY) {
+                from++;
+            }
+            return from;
+        }
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (yOf(entries[middle]) < minY) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // x is kept signed in the top bits, so comparing entries as signed longs orders them by x first
+    private static long pack(int x, int y, int slot) {
+        return (long) x << (COORDINATE_BITS + SLOT_BITS)
+                | ((long) (y + BIAS) & COORDINATE_MASK) << SLOT_BITS
+                | slot;
+    }
+
+    private static int xOf(long entry) {
+        return (int) (entry >> (COORDINATE_BITS + SLOT_BITS));
+    }
+
+    private static int yOf(long entry) {
+        return (int) ((entry >>> SLOT_BITS) & COORDINATE_MASK) - BIAS;
+    }
+
+    private static int slotOf(long entry) {
+        return (int) (entry & SLOT_MASK);
+    }
+}
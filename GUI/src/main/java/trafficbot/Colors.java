@@ -0,0 +1,13 @@
+package trafficbot;
+
+import java.awt.Color;
+
+/*
+ * Colors of the background for the simulation window.
+ * Kept apart from Constants so headless runs never load AWT classes.
+ */
+public interface Colors {
+    Color ROAD_COLOR = new Color(50, 50, 50);
+    Color BUILDING_COLOR = new Color(211, 211, 211);
+    Color GRASS_COLOR = new Color(34, 139, 34);
+}
@@ -0,0 +1,82 @@
+package trafficbot;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ * Lock-free set of int IDs, stored as a growable bitset.
+ * Car IDs are handed out densely from 1, so one bit per possible ID is far smaller than boxed Integers.
+ * The bits live in fixed-size chunks that are created on first use and never freed,
+ * so adding an ID only allocates the first time its chunk is touched.
+ */
+public class ConcurrentIdSet {
+    // 2^16 IDs (8 KB) per chunk, 2^16 chunks cover every int
+    private static final int CHUNK_BITS = 16;
+    private static final int WORDS_PER_CHUNK = 1 << (CHUNK_BITS - 6);
+    private static final int CHUNK_COUNT = 1 << (32 - CHUNK_BITS);
+
+    private final AtomicReferenceArray<AtomicLongArray> chunks = new AtomicReferenceArray<>(CHUNK_COUNT);
+    private final AtomicInteger size = new AtomicInteger();
+
+    // Add an ID; returns true if it was not already present
+    public boolean add(int id) {
+        int index = id >>> CHUNK_BITS;
+        AtomicLongArray chunk = chunks.get(index);
+        if (chunk == null) {
+            chunk = createChunk(index);
+        }
+        int word = (id >>> 6) & (WORDS_PER_CHUNK - 1);
+        long bit = 1L << id;
+        long current;
+        do {
+            current = chunk.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+        } while (!chunk.compareAndSet(word, current, current | bit));
+        size.incrementAndGet();
+        return true;
+    }
+
+    // Check whether an ID is present
+    public boolean contains(int id) {
+        AtomicLongArray chunk = chunks.get(id >>> CHUNK_BITS);
+        if (chunk == null) {
+            return false;
+        }
+        int word = (id >>> 6) & (WORDS_PER_CHUNK - 1);
+        return (chunk.get(word) & (1L << id)) != 0;
+    }
+
+    // Number of IDs in the set
+    public int size() {
+        return size.get();
+    }
+
+    // Remove every ID, keeping the chunks for reuse
+    // Adds that race with a clear may or may not survive it.
+    public void clear() {
+        for (int index = 0; index < CHUNK_COUNT; index++) {
+            AtomicLongArray chunk = chunks.get(index);
+            if (chunk == null) {
+                continue;
+            }
+            for (int word = 0; word < WORDS_PER_CHUNK; word++) {
+                long cleared = chunk.getAndSet(word, 0L);
+                if (cleared != 0) {
+                    size.addAndGet(-Long.bitCount(cleared));
+                }
+            }
+        }
+    }
+
+    // Install a chunk, or use the one another thread installed first
+    private AtomicLongArray createChunk(int index) {
+        AtomicLongArray created = new AtomicLongArray(WORDS_PER_CHUNK);
+        if (chunks.compareAndSet(index, null, created)) {
+            return created;
+        }
+        return chunks.get(index);
+    }
+}
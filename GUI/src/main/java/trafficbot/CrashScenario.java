@@ -0,0 +1,97 @@
+package trafficbot;
+
+import java.util.List;
+
+/*
+ * Crash Scenario for the simulation.
+ * This scenario simulates a crash at the intersection of two roads.
+ * It places two cars at the crash site and enables autopilot mode for the drone to circle around the wreck.
+ */
+
+public class CrashScenario implements ScenarioStrategy {
+    //Variables for the crash scenario
+    private TickScheduler scheduler;
+    private TickScheduler.Task wreckScanTask;
+    private int crashCenterX;
+    private int crashCenterY;
+    private double circleAngle;
+
+    @Override
+    // Activate the crash scenario
+    // This method sets up the crash site and initializes the cars involved in the crash.
+    public void activate(SimulationModel model) {
+        System.out.println("Crash Simulation Activated!");
+        Database db = model.getDatabase();
+        if (db.getSize() > 0) {
+            db.clear(model.getTick());
+        }
+        model.clearCars();
+        // Determine crash site at the center of the intersection
+        crashCenterX = Constants.VERTICAL_ROAD_X + Constants.ROAD_WIDTH / 2;
+        crashCenterY = Constants.HORIZONTAL_ROAD_Y + Constants.ROAD_WIDTH / 2;
+        
+        // Add two stopped cars at the crash site (opposite directions)
+        model.addCar(crashCenterX - 25, crashCenterY, 1, 0, Car.Direction.RIGHT);
+        model.addCar(crashCenterX + 25, crashCenterY, 2, 0, Car.Direction.LEFT);
+
+        // Enable autopilot mode to circle the crash site
+        model.setAutopilotEnabled(true);
+        circleAngle = 0.0;
+        System.out.println("Scanning wreck...");
+
+        // Periodic check, in simulated time, for when scanning is complete
+        // The check looks for at least 2 cars in the database (indicating a crash)
+        scheduler = model.getScheduler();
+        wreckScanTask = scheduler.scheduleRepeating(Constants.WRECK_SCAN_INTERVAL, () -> {
+            if (db.getSize() >= 2) {
+                System.out.println("Scanning Completed!");
+                scheduler.cancel(wreckScanTask);
+            }
+        });
+    }
+
+    @Override
+    // With the agent runtime on, an agent watches for the wreck's scans instead of the periodic check
+    public Agent createAgent() {
+        scheduler.cancel(wreckScanTask);
+        return new WreckWatch();
+    }
+
+    // Waits for scans of both cars of the wreck
+    private static class WreckWatch extends Agent {
+        @Override
+        protected void act() throws InterruptedException {
+            int scanned = 0;
+            while (scanned < 2) {
+                if (receive().isScan()) {
+                    scanned++;
+                }
+            }
+            System.out.println("Scanning Completed!");
+        }
+    }
+
+    @Override
+    // Deactivate the crash scenario
+    // This method cancels the wreck scan check.
+    public void deactivate() {
+        if (scheduler != null) {
+            scheduler.cancel(wreckScanTask);
+        }
+    }
+
+    @Override
+    // Update the drones' positions in autopilot mode
+    // This method moves the drones in a circular path around the crash site, spaced evenly around the circle.
+    public void updateDroneAuto(SimulationModel model) {
+        // Circle around the crash site
+        circleAngle += Math.toRadians(Constants.ORBIT_ANGLE_STEP_DEGREES);
+        List<Drone> drones = model.getDrones();
+        for (int i = 0; i < drones.size(); i++) {
+            double angle = circleAngle + 2 * Math.PI * i / drones.size();
+            int newX = crashCenterX + (int) (Constants.ORBIT_RADIUS * Math.cos(angle));
+            int newY = crashCenterY + (int) (Constants.ORBIT_RADIUS * Math.sin(angle));
+            drones.get(i).setPosition(newX, newY);
+        }
+    }
+}
\ No newline at end of file
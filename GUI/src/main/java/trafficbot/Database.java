@@ -0,0 +1,154 @@
+package trafficbot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.StampedLock;
+
+/*
+ * Database for the simulation, used to keep track of car IDs.
+ * The application shares one instance; headless runs that must not see each other's scans, such as
+ * the runs of a parameter sweep, each create their own, which never prints or journals.
+ * It provides methods to add car IDs and check the size of the database.
+ * It is safe to call from several scanning threads at once, and adding an ID does not allocate.
+ * New scans can also be written to a ScanJournal, which is replayed on startup so the IDs survive restarts.
+ */
+public class Database {
+    // Singleton instance, created when the class is first used
+    private static final Database instance = new Database(true);
+    private final ConcurrentIdSet carIDs = new ConcurrentIdSet();
+    // Null for detached databases, which have no console thread
+    private final ScanLog log;
+    private volatile ScanJournal journal;
+    // Scans share the read lock and a clear takes the write lock, so no scan is journaled on one side
+    // of a clear marker and stored in memory on the other
+    private final StampedLock clearLock = new StampedLock();
+
+    private Database(boolean logging) {
+        this.log = logging ? new ScanLog() : null;
+    }
+
+    // Method to get the singleton instance of Database
+    public static Database getInstance() {
+        return instance;
+    }
+
+    // A new, empty database of its own, without console messages
+    public static Database create() {
+        return new Database(false);
+    }
+
+    // Method to clear the car IDs in the shared database; without a tick, the journal marks the clear at tick 0
+    public static void clearCars() {
+        instance.clear(0);
+    }
+
+    // Method to clear the car IDs in this database at the given simulation tick
+    // The marker is journaled and the IDs cleared while no scan is being added, so replay sees the same order.
+    public void clear(long tick) {
+        long stamp = clearLock.writeLock();
+        try {
+            ScanJournal current = journal;
+            if (current != null) {
+                current.appendClear(tick);
+            }
+            carIDs.clear();
+        } finally {
+            clearLock.unlockWrite(stamp);
+        }
+    }
+    
+    // Method to add a car ID to the database
+    public boolean addCar(int carID) {
+        return addCar(carID, 0, 0, 0, 0);
+    }
+
+    // Method to add a car ID along with where and when it was scanned
+    // The console message is printed by a background thread, not the scanning thread
+    public boolean addCar(int carID, int droneID, long tick, int x, int y) {
+        // Repeat scans are the common case and change nothing, so they skip the lock
+        if (carIDs.contains(carID)) {
+            return false;
+        }
+        long stamp = clearLock.readLock();
+        try {
+            if (!carIDs.add(carID)) {
+                return false;
+            }
+            ScanJournal current = journal;
+            if (current != null) {
+                current.appendScan(carID, droneID, tick, x, y);
+            }
+        } finally {
+            clearLock.unlockRead(stamp);
+        }
+        if (log != null) {
+            log.logAdded(carID);
+        }
+        return true;
+    }
+
+    // Method to check whether a car ID has been scanned
+    public boolean containsCar(int carID) {
+        return carIDs.contains(carID);
+    }
+
+    //Method to get the size of the database
+    // Returns the number of unique car IDs in the database
+    public int getSize() {
+        return carIDs.size();
+    }
+
+    // Replay a journal directory into the database, then record new scans into it
+    public synchronized void openJournal(Path directory) throws IOException {
+        closeJournal();
+        ScanJournal opened = new ScanJournal(directory);
+        carIDs.clear();
+        long events = opened.replay(new ScanJournal.Visitor() {
+            @Override
+            public void onScan(int carID, int droneID, long tick, int x, int y) {
+                carIDs.add(carID);
+            }
+
+            @Override
+            public void onClear(long tick) {
+                carIDs.clear();
+            }
+        });
+        journal = opened;
+        System.out.println("Replayed " + events + " scan events from " + directory + ", " + getSize() + " cars in database.");
+    }
+
+    // Open the journal named by the trafficbot.journal system property, if it is set
+    public void openConfiguredJournal() {
+        String directory = System.getProperty("trafficbot.journal");
+        if (directory == null) {
+            return;
+        }
+        try {
+            openJournal(Path.of(directory));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open scan journal " + directory, e);
+        }
+    }
+
+    // Flush and close the journal; later scans are kept in memory only
+    public synchronized void closeJournal() {
+        ScanJournal current = journal;
+        journal = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                System.err.println("Could not close scan journal: " + e.getMessage());
+            }
+        }
+    }
+
+    // Turn the "added to database" console messages on or off
+    public void setLogging(boolean enabled) {
+        if (log != null) {
+            log.setEnabled(enabled);
+        }
+    }
+}
@@ -1,6 +1,8 @@
-/**
- * Represents directions for vehicle movement.
- */
-public enum Direction {
-    RIGHT, LEFT, DOWN, UP
-}
+package trafficbot;
+
+/**
+ * Represents directions for vehicle movement.
+ */
+public enum Direction {
+    RIGHT, LEFT, DOWN, UP
+}
@@ -0,0 +1,23 @@
+package trafficbot;
+
+/*
+ * Batch distance test over packed coordinate arrays, used by SpatialGrid for neighbour counts and drone
+ * range scans. A point is within the limit of (x, y) when dx * dx + dy * dy < limit. The sums are kept in
+ * int: each offset is clamped to MAX_OFFSET first, which cannot overflow and is exact for any range up to
+ * MAX_OFFSET pixels. DistanceKernels picks the implementation.
+ */
+public interface DistanceKernel {
+    int MAX_OFFSET = 32767;
+
+    // Number of the first count points strictly inside the limit
+    int countWithin(int[] xs, int[] ys, int count, int x, int y, int limit);
+
+    // Write the indexes of the first count points strictly inside the limit to out from offset, in order,
+    // and return how many there were; out must have room for count more entries
+    int collectWithin(int[] xs, int[] ys, int count, int x, int y, int limit, int[] out, int offset);
+
+    // Squared-distance limit that matches "strictly closer than distance" for whole-pixel offsets
+    static int limitFor(double distance) {
+        return (int) Math.min((long) MAX_OFFSET * MAX_OFFSET, (long) Math.ceil(distance * distance));
+    }
+}
@@ -0,0 +1,37 @@
+package trafficbot;
+
+/*
+ * Picks the DistanceKernel the spatial grids use.
+ * The Vector API kernel is used when the jdk.incubator.vector module is in the boot layer, i.e. the JVM
+ * was started with --add-modules jdk.incubator.vector; otherwise, or with -Dtrafficbot.vector=false, the
+ * scalar kernel is. Both give the same answers.
+ */
+public final class DistanceKernels {
+    public static final DistanceKernel SCALAR = new ScalarDistanceKernel();
+    private static final DistanceKernel VECTOR = loadVector();
+
+    private DistanceKernels() {
+    }
+
+    // The fastest kernel available in this JVM
+    public static DistanceKernel best() {
+        return VECTOR != null && !"false".equals(System.getProperty("trafficbot.vector")) ? VECTOR : SCALAR;
+    }
+
+    // The Vector API kernel, or null if the module is not available
+    public static DistanceKernel vector() {
+        return VECTOR;
+    }
+
+    private static DistanceKernel loadVector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (DistanceKernel) Class.forName("trafficbot.VectorDistanceKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.out.println("Vector API kernel not available, using the scalar one: " + e);
+            return null;
+        }
+    }
+}
@@ -1,65 +1,97 @@
-/*
- * Drone class for the simulation.
- * This class represents the Traffic Drone
- */
-
-public class Drone {
-    //variables
-    private int x, y;
-    private final int speed;
-    private int direction; // 0: right, 1: down, 2: left, 3: up
-
-    // Constructor
-    public Drone(int x, int y) {
-        this.x = x;
-        this.y = y;
-        this.speed = 1;
-        this.direction = 0;
-    }
-
-    public void move() {
-        // Follow a fixed rectangular path defined by boundaries
-        switch (direction) {
-            case 0 -> { // move right
-                x += speed;
-                if (x >= Constants.DRONE_PATROL_MAX_X) {
-                    direction = 1;
-                }
-            }
-            case 1 -> { // move down
-                y += speed;
-                if (y >= Constants.DRONE_PATROL_MAX_Y) {
-                    direction = 2;
-                }
-            }
-            case 2 -> { // move left
-                x -= speed;
-                if (x <= Constants.DRONE_PATROL_MIN_X) {
-                    direction = 3;
-                }
-            }
-            case 3 -> { // move up
-                y -= speed;
-                if (y <= Constants.DRONE_PATROL_MIN_Y) {
-                    direction = 0;
-                }
-            }
-        }
-    }
-
-    // Check if the drone is in range of a car
-    public boolean isInRange(Car car) {
-        int dx = x - car.getX();
-        int dy = y - car.getY();
-        return Math.sqrt(dx * dx + dy * dy) < Constants.SCAN_RANGE;
-    }
-
-    public int getX() { return x; }
-    public int getY() { return y; }
-
-    // Setters for x and y coordinates
-    public void setPosition(int newX, int newY) {
-        this.x = newX;
-        this.y = newY;
-    }
+package trafficbot;
+
+/*
+ * Drone class for the simulation.
+ * This class represents the Traffic Drone
+ * Each drone has an ID and its own autopilot route, so several can patrol different sectors.
+ */
+
+public class Drone {
+    //variables
+    private int x, y;
+    private final int id;
+    private final int speed;
+    private int direction; // 0: right, 1: down, 2: left, 3: up
+    private int[][] route;
+    private int routeIndex;
+    private int scanRange = Constants.SCAN_RANGE;
+
+    // Constructor
+    public Drone(int x, int y) {
+        this(1, x, y);
+    }
+
+    public Drone(int id, int x, int y) {
+        this.x = x;
+        this.y = y;
+        this.id = id;
+        this.speed = 1;
+        this.direction = 0;
+        this.routeIndex = 0;
+    }
+
+    public void move() {
+        // Follow a fixed rectangular path defined by boundaries
+        switch (direction) {
+            case 0 -> { // move right
+                x += speed;
+                if (x >= Constants.DRONE_PATROL_MAX_X) {
+                    direction = 1;
+                }
+            }
+            case 1 -> { // move down
+                y += speed;
+                if (y >= Constants.DRONE_PATROL_MAX_Y) {
+                    direction = 2;
+                }
+            }
+            case 2 -> { // move left
+                x -= speed;
+                if (x <= Constants.DRONE_PATROL_MIN_X) {
+                    direction = 3;
+                }
+            }
+            case 3 -> { // move up
+                y -= speed;
+                if (y <= Constants.DRONE_PATROL_MIN_Y) {
+                    direction = 0;
+                }
+            }
+        }
+    }
+
+    // Check if the drone is in range of a car
+    public boolean isInRange(Car car) {
+        return isInRange(car.getX(), car.getY());
+    }
+
+    // Check if the drone is in range of a position
+    public boolean isInRange(int carX, int carY) {
+        int dx = x - carX;
+        int dy = y - carY;
+        return dx * dx + dy * dy < scanRange * scanRange;
+    }
+
+    public int getX() { return x; }
+    public int getY() { return y; }
+    public int getId() { return id; }
+
+    // Radius within which the drone scans cars
+    public int getScanRange() { return scanRange; }
+    public void setScanRange(int scanRange) { this.scanRange = scanRange; }
+
+    // Autopilot waypoints, visited in order and then repeated
+    public int[][] getRoute() { return route; }
+    public void setRoute(int[][] route) {
+        this.route = route;
+        this.routeIndex = 0;
+    }
+    public int getRouteIndex() { return routeIndex; }
+    public void setRouteIndex(int routeIndex) { this.routeIndex = routeIndex; }
+
+    // Setters for x and y coordinates
+    public void setPosition(int newX, int newY) {
+        this.x = newX;
+        this.y = newY;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package trafficbot;
+
+/*
+ * Agent that flies one drone along its patrol route.
+ * Each tick it reads where the drone is from the tick message, plans the next step on its own copy of the
+ * drone and posts the move back to the model. Scans made by its drone arrive as messages and are counted.
+ */
+public class DroneAgent extends Agent {
+    // The model's drone, only touched on the simulation thread
+    final private Drone drone;
+    // The agent's own copy, for planning on the agent's thread
+    final private Drone plan;
+    private volatile long scans;
+
+    // Constructor for an agent flying the given drone of the model
+    public DroneAgent(Drone drone) {
+        this.drone = drone;
+        this.plan = new Drone(drone.getId(), drone.getX(), drone.getY());
+        plan.setRoute(drone.getRoute());
+        plan.setRouteIndex(drone.getRouteIndex());
+    }
+
+    public Drone getDrone() {
+        return drone;
+    }
+
+    // Scans made by the drone since the agent started
+    public long getScans() {
+        return scans;
+    }
+
+    @Override
+    protected AgentMessage observe(SimulationModel model, long tick) {
+        return AgentMessage.tick(tick, drone.getX(), drone.getY());
+    }
+
+    @Override
+    protected int getDroneId() {
+        return drone.getId();
+    }
+
+    @Override
+    protected void onScan(AgentMessage scan) {
+        scans++;
+    }
+
+    @Override
+    protected void act() throws InterruptedException {
+        while (true) {
+            AgentMessage tick = awaitTick();
+            // Start from where the drone really is, in case something else moved it
+            plan.setPosition(tick.getDroneX(), tick.getDroneY());
+            SimulationModel.followRoute(plan);
+            int x = plan.getX();
+            int y = plan.getY();
+            post(model -> drone.setPosition(x, y));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package trafficbot;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Local stand-in for the detection pipeline, for exercising IngestServer.
+ * Replays canned detections (a file in the ingest text protocol, or generated cars driving along the roads)
+ * over several loopback TCP connections or UDP at a fixed total rate, as text or binary records.
+ */
+public class FakeDetector {
+    // Records are written in batches of about this many milliseconds
+    private static final long BATCH_MILLIS = 1;
+
+    private final byte[][] records;
+    private final InetSocketAddress address;
+    private final boolean udp;
+    private final AtomicLong sent = new AtomicLong();
+
+    // Constructor for a detector replaying pre-encoded records to a server address
+    public FakeDetector(List<byte[]> records, InetSocketAddress address, boolean udp) {
+        this.records = records.toArray(new byte[0][]);
+        this.address = address;
+        this.udp = udp;
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    // Send records round-robin at the given rate until the deadline, starting at a different record per sender
+    private void send(int sender, double recordsPerSecond, long deadline) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(udp ? 1400 : 1 << 16);
+        long interval = TimeUnit.MILLISECONDS.toNanos(BATCH_MILLIS);
+        long start = System.nanoTime();
+        long written = 0;
+        int next = sender * 7919 % records.length;
+        try (SocketChannel tcp = udp ? null : SocketChannel.open(address);
+             DatagramChannel datagrams = udp ? DatagramChannel.open() : null) {
+            while (true) {
+                long now = System.nanoTime();
+                if (now >= deadline) {
+                    return;
+                }
+                // Records owed by now; a slow receiver (TCP backpressure) just leaves us behind
+                long due = (long) ((now - start) / 1e9 * recordsPerSecond);
+                buffer.clear();
+                int batch = 0;
+                while (written + batch < due && buffer.remaining() >= records[next].length) {
+                    buffer.put(records[next]);
+                    next = (next + 1) % records.length;
+                    batch++;
+                }
+                buffer.flip();
+                if (udp) {
+                    if (batch > 0) {
+                        datagrams.send(buffer, address);
+                    }
+                } else {
+                    while (buffer.hasRemaining()) {
+                        tcp.write(buffer);
+                    }
+                }
+                written += batch;
+                sent.addAndGet(batch);
+                if (written >= due) {
+                    LockSupport.parkNanos(interval);
+                }
+            }
+        }
+    }
+
+    // Generated detections: cars driving along both roads, seen by drones 1 to 4
+    static List<String> generateLines(int cars) {
+        List<String> lines = new ArrayList<>();
+        int laneY = Constants.HORIZONTAL_ROAD_Y + Constants.LANE_OFFSET;
+        int laneX = Constants.VERTICAL_ROAD_X + Constants.LANE_OFFSET;
+        for (int step = 0; step < 40; step++) {
+            for (int car = 1; car <= cars; car++) {
+                int progress = (car * 37 + step * 20) % Constants.WINDOW_WIDTH;
+                int drone = 1 + car % 4;
+                if (car % 2 == 0) {
+                    lines.add("D " + drone + " " + car + " " + progress + " " + laneY);
+                } else {
+                    lines.add("D " + drone + " " + car + " " + laneX + " " + progress % Constants.WINDOW_HEIGHT);
+                }
+            }
+            lines.add("C " + (1 + step % 4) + " " + (step % 12));
+        }
+        return lines;
+    }
+
+    // Encode text protocol lines as text or binary records
+    static List<byte[]> encode(List<String> lines, boolean binary) {
+        List<byte[]> records = new ArrayList<>();
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            if (!binary) {
+                records.add((trimmed + "\n").getBytes(StandardCharsets.US_ASCII));
+                continue;
+            }
+            String[] fields = trimmed.split("\\s+");
+            ByteBuffer record = ByteBuffer.allocate(IngestServer.BINARY_RECORD_SIZE);
+            record.put((byte) (fields[0].equals("C") ? IngestServer.TYPE_COUNT : IngestServer.TYPE_DETECTION));
+            for (int i = 1; i <= 4; i++) {
+                record.putInt(i < fields.length ? Integer.parseInt(fields[i]) : 0);
+            }
+            records.add(record.array());
+        }
+        return records;
+    }
+
+    // java FakeDetector <port> [records per second] [seconds] [connections] [text|binary|udp] [canned file]
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        double rate = args.length > 1 ? Double.parseDouble(args[1]) : 100_000;
+        double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        int connections = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        String mode = args.length > 4 ? args[4] : "text";
+        List<String> lines = args.length > 5 ? Files.readAllLines(Path.of(args[5])) : generateLines(500);
+
+        boolean udp = mode.equals("udp");
+        FakeDetector detector = new FakeDetector(encode(lines, mode.equals("binary")),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), udp);
+        long start = System.nanoTime();
+        long deadline = start + (long) (seconds * 1e9);
+        List<Thread> senders = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            int sender = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    detector.send(sender, rate / connections, deadline);
+                } catch (IOException e) {
+                    System.out.println("Sender " + sender + " stopped: " + e.getMessage());
+                }
+            }, "fake-detector-" + i);
+            thread.start();
+            senders.add(thread);
+        }
+        for (Thread thread : senders) {
+            thread.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Sent %d records over %d %s connections in %.1f s (%.0f records/s)%n",
+                detector.getSent(), connections, mode, elapsed, detector.getSent() / elapsed);
+    }
+}
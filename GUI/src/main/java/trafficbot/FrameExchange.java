@@ -0,0 +1,61 @@
+package trafficbot;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Lock-free triple buffer handing frames from the simulation thread to the renderer.
+ * The simulation fills its back snapshot and swaps it into the middle in one atomic step, getting the old
+ * middle back to fill next. The renderer swaps the middle for its front snapshot whenever the middle holds
+ * a frame it has not seen. Each side owns one snapshot at a time and the third sits in between, so neither
+ * ever waits for the other, a snapshot is never written while it is drawn, and the renderer always gets the
+ * newest complete frame; frames it had no time to draw are simply overwritten.
+ *
+ * One thread may publish and one thread may take frames. Nothing is allocated once the snapshots' arrays
+ * have grown to the number of cars.
+ */
+public class FrameExchange implements SimulationListener {
+    // Set in the middle index while it holds a frame the renderer has not taken yet
+    private static final int FRESH = 4;
+
+    final private FrameSnapshot[] snapshots = { new FrameSnapshot(), new FrameSnapshot(), new FrameSnapshot() };
+    final private AtomicInteger middle = new AtomicInteger(1);
+    // Owned by the publishing thread
+    private int back = 0;
+    private long published;
+    // Owned by the rendering thread
+    private int front = 2;
+    private long taken;
+
+    // Publish the state of the model at the end of every tick
+    @Override
+    public void onTick(SimulationModel model, long tick) {
+        publish(model);
+    }
+
+    // Snapshot the model and make it the newest frame; called on the simulation thread
+    public void publish(SimulationModel model) {
+        snapshots[back].capture(model);
+        back = middle.getAndSet(back | FRESH) & ~FRESH;
+        published++;
+    }
+
+    // The newest complete frame; called on the rendering thread
+    // The snapshot stays valid until the next call.
+    public FrameSnapshot latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & ~FRESH;
+            taken++;
+        }
+        return snapshots[front];
+    }
+
+    // Frames published, read by the publishing thread
+    public long getPublished() {
+        return published;
+    }
+
+    // Frames taken by the renderer, read by the rendering thread; the rest were skipped
+    public long getTaken() {
+        return taken;
+    }
+}
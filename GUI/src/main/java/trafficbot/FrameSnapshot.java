@@ -0,0 +1,124 @@
+package trafficbot;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Everything the renderers draw for one tick, packed into primitive arrays: car positions and sprite states
+ * by slot, drone positions, and the map. A snapshot is filled on the simulation thread and handed over
+ * whole through a FrameExchange, which does not refill it while a renderer may be reading it; readers
+ * only ever see it through the getters. The arrays are reused from frame to frame and only grow.
+ *
+ * Capturing also buckets the cars by sprite state and then by CELL_SIZE grid cell, with one counting sort,
+ * so a renderer that shows part of the map reads only the cells under its view. The buckets hold slots;
+ * the per-slot arrays keep the model's order for renderers that compare frames slot by slot.
+ */
+public class FrameSnapshot {
+    // Side of a grid cell in world pixels, a background chunk at full zoom
+    public static final int CELL_SIZE = ChunkCache.CHUNK_PIXELS;
+
+    private long tick;
+    private CityMap map = CityMap.INTERSECTION;
+    private int carCount;
+    private int[] carX = new int[0];
+    private int[] carY = new int[0];
+    private byte[] carState = new byte[0];
+    private int droneCount;
+    private int[] droneX = new int[0];
+    private int[] droneY = new int[0];
+    private int cellColumns = 1;
+    private int cellRows = 1;
+    // Bucket b = state * cells + row * cellColumns + column holds cellSlots[cellStarts[b]..cellStarts[b + 1])
+    private int[] cellStarts = new int[SpriteCache.CAR_STATES + 1];
+    private int[] cellSlots = new int[0];
+    // Bucket of each slot, kept between the two passes of the sort
+    private int[] carBuckets = new int[0];
+
+    // Copy the model's cars and drones; called on the simulation thread
+    void capture(SimulationModel model) {
+        CarStore cars = model.getCarStore();
+        int count = cars.size();
+        if (carX.length < count) {
+            int capacity = Math.max(count, carX.length * 2);
+            carX = Arrays.copyOf(carX, capacity);
+            carY = Arrays.copyOf(carY, capacity);
+            carState = Arrays.copyOf(carState, capacity);
+            cellSlots = new int[capacity];
+            carBuckets = new int[capacity];
+        }
+        for (int slot = 0; slot < count; slot++) {
+            carX[slot] = cars.getX(slot);
+            carY[slot] = cars.getY(slot);
+            carState[slot] = (byte) SpriteCache.stateOf(cars, slot);
+        }
+        carCount = count;
+        map = model.getMap();
+        bucketCars();
+
+        List<Drone> drones = model.getDrones();
+        if (droneX.length < drones.size()) {
+            droneX = Arrays.copyOf(droneX, drones.size());
+            droneY = Arrays.copyOf(droneY, drones.size());
+        }
+        for (int i = 0; i < drones.size(); i++) {
+            Drone drone = drones.get(i);
+            droneX[i] = drone.getX();
+            droneY[i] = drone.getY();
+        }
+        droneCount = drones.size();
+        tick = model.getTick();
+    }
+
+    // Counting sort of the slots into their buckets: count, turn counts into starts, then place
+    private void bucketCars() {
+        // Cars may sit exactly on the far edge after wrapping, so add one extra cell
+        cellColumns = map.getWidth() / CELL_SIZE + 1;
+        cellRows = map.getHeight() / CELL_SIZE + 1;
+        int cells = cellColumns * cellRows;
+        int buckets = SpriteCache.CAR_STATES * cells;
+        if (cellStarts.length < buckets + 1) {
+            cellStarts = new int[buckets + 1];
+        }
+        Arrays.fill(cellStarts, 0, buckets + 1, 0);
+        for (int slot = 0; slot < carCount; slot++) {
+            int bucket = carState[slot] * cells + getCellRow(carY[slot]) * cellColumns + getCellColumn(carX[slot]);
+            carBuckets[slot] = bucket;
+            cellStarts[bucket + 1]++;
+        }
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            cellStarts[bucket + 1] += cellStarts[bucket];
+        }
+        // Placing moves each start up to the next bucket's start, so shift them back afterwards
+        for (int slot = 0; slot < carCount; slot++) {
+            cellSlots[cellStarts[carBuckets[slot]]++] = slot;
+        }
+        System.arraycopy(cellStarts, 0, cellStarts, 1, buckets);
+        cellStarts[0] = 0;
+    }
+
+    public long getTick() { return tick; }
+    public CityMap getMap() { return map; }
+
+    public int getCarCount() { return carCount; }
+    public int getCarX(int slot) { return carX[slot]; }
+    public int getCarY(int slot) { return carY[slot]; }
+    // SpriteCache state of the car
+    public int getCarState(int slot) { return carState[slot]; }
+
+    // Grid cell of a world coordinate; cells are clamped, so cars off the map land in an edge cell
+    public int getCellColumn(int x) { return Math.max(0, Math.min(cellColumns - 1, x / CELL_SIZE)); }
+    public int getCellRow(int y) { return Math.max(0, Math.min(cellRows - 1, y / CELL_SIZE)); }
+
+    // Index into getCellSlot of the first car of a state in the cell; cells of a row follow each other, so
+    // passing the column one past the last cell of a range gives the end of that range
+    public int getCellStart(int state, int column, int row) {
+        return cellStarts[(state * cellRows + row) * cellColumns + column];
+    }
+
+    // Slot of a car bucketed by getCellStart
+    public int getCellSlot(int index) { return cellSlots[index]; }
+
+    public int getDroneCount() { return droneCount; }
+    public int getDroneX(int index) { return droneX[index]; }
+    public int getDroneY(int index) { return droneY[index]; }
+}
@@ -0,0 +1,199 @@
+package trafficbot;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+
+import javax.swing.JPanel;
+
+/*
+ * Game panel for rendering the simulation.
+ * This class is responsible for drawing the background, the drone, and the cars.
+ * Drawing is retained: a RetainedRenderer keeps the composed frame and redraws only what changed,
+ * so painting the panel is a single image copy.
+ * The view can be dragged to pan and zoomed with the mouse wheel (double-click goes back). Once it has
+ * moved, or on a map bigger than the window, a ViewportRenderer draws only what is in view instead.
+ * Both draw from the newest frame snapshot in the panel's FrameExchange, never from the live model, so the
+ * simulation can publish frames from any thread without the panel seeing a half-updated tick.
+ */
+
+public class GamePanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    final private SimulationModel model;
+    final private FrameExchange frames;
+    final private BufferedImage backgroundImage;
+    final private RetainedRenderer renderer;
+    final private Viewport viewport;
+    final private ViewportRenderer viewportRenderer;
+    private TickMetrics metrics;
+    private boolean overlayVisible;
+
+    // Area of the metrics overlay, repainted with every frame while it is shown
+    private static final Rectangle OVERLAY = new Rectangle(8, 8, 420, 20 + 14 * TickMetrics.PHASES);
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 170);
+    private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+    // Constructor initializes the model and pre-renders the background
+    public GamePanel(SimulationModel model) {
+        this.model = model;
+        this.frames = new FrameExchange();
+        // Set background color for any uncovered area
+        setBackground(Colors.GRASS_COLOR);
+        // Pre-render static background (roads, buildings)
+        backgroundImage = BackgroundRenderer.createBackground(Constants.WINDOW_WIDTH, Constants.WINDOW_HEIGHT);
+        renderer = new RetainedRenderer(backgroundImage, Constants.WINDOW_WIDTH, Constants.WINDOW_HEIGHT);
+        viewport = new Viewport();
+        viewportRenderer = new ViewportRenderer(model.getMap());
+        // Something to draw before the first tick is published
+        frames.publish(model);
+        ViewControls controls = new ViewControls();
+        addMouseListener(controls);
+        addMouseMotionListener(controls);
+        addMouseWheelListener(controls);
+    }
+
+    public Viewport getViewport() {
+        return viewport;
+    }
+
+    // Frames to draw; the simulation publishes into it, e.g. by adding it as an engine listener
+    public FrameExchange getFrames() {
+        return frames;
+    }
+
+    // Snapshot the model for the next paint, for callers that change the model outside the engine
+    public void publishFrame() {
+        frames.publish(model);
+    }
+
+    // The retained full-window frame only covers the original map seen from its home position
+    private boolean isViewportMode(FrameSnapshot snapshot) {
+        return snapshot.getMap() != CityMap.INTERSECTION || !viewport.isHome();
+    }
+
+    // Drag to pan, wheel to zoom around the cursor, double-click to go back to the original view
+    private class ViewControls extends MouseAdapter {
+        private int lastX;
+        private int lastY;
+
+        @Override
+        public void mousePressed(MouseEvent e) {
+            lastX = e.getX();
+            lastY = e.getY();
+        }
+
+        @Override
+        public void mouseDragged(MouseEvent e) {
+            viewport.pan(e.getX() - lastX, e.getY() - lastY, frames.latest().getMap(), getWidth(), getHeight());
+            lastX = e.getX();
+            lastY = e.getY();
+            viewChanged();
+        }
+
+        @Override
+        public void mouseWheelMoved(MouseWheelEvent e) {
+            viewport.zoomAt(e.getX(), e.getY(), -e.getWheelRotation(), frames.latest().getMap(), getWidth(), getHeight());
+            viewChanged();
+        }
+
+        @Override
+        public void mouseClicked(MouseEvent e) {
+            if (e.getClickCount() == 2) {
+                viewport.reset();
+                viewChanged();
+            }
+        }
+    }
+
+    // Coming back to the home view the retained frame is stale, so it is redrawn in full
+    private void viewChanged() {
+        if (!isViewportMode(frames.latest())) {
+            renderer.invalidate();
+        }
+        repaint();
+    }
+
+    // Update the frame from the newest snapshot and repaint only the area that changed
+    public void refreshFrame() {
+        FrameSnapshot snapshot = frames.latest();
+        if (isViewportMode(snapshot)) {
+            repaint();
+            return;
+        }
+        Rectangle changed = renderer.update(snapshot);
+        if (changed != null) {
+            repaint(changed);
+        }
+        if (overlayVisible) {
+            repaint(OVERLAY);
+        }
+    }
+
+    // Time painting into these metrics and show them in the overlay
+    public void setMetrics(TickMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Show or hide the metrics overlay
+    public void setOverlayVisible(boolean visible) {
+        overlayVisible = visible;
+        repaint(OVERLAY);
+    }
+
+    public boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+
+    // Throw away the retained frame so the next paint redraws everything
+    public void invalidateFrame() {
+        renderer.invalidate();
+    }
+
+    @Override
+    // Override paintComponent to draw the game elements
+    // This method is called whenever the panel needs to be redrawn
+    protected void paintComponent(Graphics g) {
+        long start = System.nanoTime();
+        FrameSnapshot snapshot = frames.latest();
+        if (isViewportMode(snapshot)) {
+            viewportRenderer.paint((Graphics2D) g, snapshot, viewport, getWidth(), getHeight());
+        } else {
+            // The frame covers the whole panel, so there is no need to clear it first
+            renderer.update(snapshot);
+            g.drawImage(renderer.getFrame(), 0, 0, null);
+        }
+        if (metrics != null) {
+            metrics.record(TickMetrics.REPAINT, System.nanoTime() - start);
+            if (overlayVisible) {
+                drawOverlay(g);
+            }
+        }
+    }
+
+    // Draw the phase percentiles and counters over the top-left corner
+    private void drawOverlay(Graphics g) {
+        g.setColor(OVERLAY_BACKGROUND);
+        g.fillRect(OVERLAY.x, OVERLAY.y, OVERLAY.width, OVERLAY.height);
+        g.setColor(Color.WHITE);
+        g.setFont(OVERLAY_FONT);
+        int x = OVERLAY.x + 6;
+        int y = OVERLAY.y + 14;
+        g.drawString(String.format("%d cars  %.1f scans/s  %.0f scans/sim min  %d dropped",
+                metrics.getCarCount(), metrics.getScansPerSecond(), metrics.getScansPerSimulatedMinute(),
+                metrics.getDroppedFrames()), x, y);
+        for (int phase = 0; phase < TickMetrics.PHASES; phase++) {
+            LatencyHistogram histogram = metrics.getHistogram(phase);
+            y += 14;
+            g.drawString(String.format("%-9s p50 %7.3f p99 %7.3f p999 %7.3f ms", TickMetrics.PHASE_NAMES[phase],
+                    histogram.getPercentile(0.5) / 1e6, histogram.getPercentile(0.99) / 1e6,
+                    histogram.getPercentile(0.999) / 1e6), x, y);
+        }
+    }
+}
@@ -0,0 +1,512 @@
+package trafficbot;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Non-blocking ingest of live detections from drones or roadside detectors.
+ * One selector thread serves any number of loopback TCP connections plus a UDP socket on the same port,
+ * decodes records into a bounded single-producer single-consumer queue, and posts one drain task at a time
+ * to the model, so detections are applied on the simulation thread in a batch at the start of a tick.
+ *
+ * When the queue is nearly full the server stops reading from TCP connections until the simulation
+ * catches up, so senders are slowed down by TCP flow control instead of losing data. UDP has no way to
+ * push back, so datagram records that do not fit are dropped and counted.
+ *
+ * Protocol: a stream (or datagram) of records, each either a text line or a fixed-size binary record.
+ *   text:   "D <drone> <car> <x> <y>\n"  car detected at a position
+ *           "C <drone> <count>\n"         number of cars a detector currently sees
+ *   binary: type byte (1 detection, 2 count) then four big-endian ints: drone, car or count, x, y
+ * Binary type bytes are below any text letter, so the two may be mixed freely.
+ * Car IDs are never negative; a detection with a negative car ID is counted as malformed.
+ */
+public class IngestServer implements Runnable, AutoCloseable {
+    public static final int TYPE_DETECTION = 1;
+    public static final int TYPE_COUNT = 2;
+    public static final int BINARY_RECORD_SIZE = 17;
+
+    private static final int QUEUE_CAPACITY = 1 << 16;
+    private static final int QUEUE_MASK = QUEUE_CAPACITY - 1;
+    private static final int READ_BUFFER_SIZE = 1 << 13;
+    // Shortest possible record ("C1 1\n", as the space after the kind letter is optional); a TCP read is only
+    // started when its worst case fits in the queue
+    private static final int MIN_RECORD_SIZE = 5;
+    private static final int MAX_RECORDS_PER_READ = READ_BUFFER_SIZE / MIN_RECORD_SIZE + 1;
+    // At most this many records are applied per tick; the rest wait for the next one
+    private static final int MAX_RECORDS_PER_TICK = QUEUE_CAPACITY / 2;
+    private static final long SELECT_TIMEOUT_MILLIS = 100;
+
+    // Same thresholds as the Python logger's get_traffic_level
+    private static final int MODERATE_COUNT = 5;
+    private static final int HEAVY_COUNT = 10;
+
+    private final SimulationModel model;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final DatagramChannel datagrams;
+    private final ByteBuffer datagramBuffer = ByteBuffer.allocate(1 << 16);
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // Queue of decoded records; written only by the selector thread, read only by the simulation thread
+    private final byte[] types = new byte[QUEUE_CAPACITY];
+    private final int[] drones = new int[QUEUE_CAPACITY];
+    private final int[] firsts = new int[QUEUE_CAPACITY];
+    private final int[] xs = new int[QUEUE_CAPACITY];
+    private final int[] ys = new int[QUEUE_CAPACITY];
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicBoolean drainPosted = new AtomicBoolean();
+    private volatile boolean readsPaused;
+    private final List<SelectionKey> pausedKeys = new ArrayList<>();
+    // Fields of the text line being parsed (selector thread only)
+    private final int[] lineFields = new int[4];
+
+    // Counters
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong malformed = new AtomicLong();
+    private volatile int connections;
+
+    // Live cars added from detections: car ID -> slot, checked against the store on every use
+    private int[] liveIds = new int[1024];
+    private int[] liveSlots = new int[1024];
+    private int liveCount;
+    // Latest car count reported by each detector, by drone ID
+    private int[] reportedCounts = new int[16];
+
+    // Constructor binds TCP and UDP on the loopback address and starts the selector thread
+    // A port of 0 picks a free port; see getPort.
+    public IngestServer(SimulationModel model, int port) throws IOException {
+        this.model = model;
+        this.selector = Selector.open();
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(loopback, port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.datagrams = DatagramChannel.open();
+        datagrams.setOption(StandardSocketOptions.SO_RCVBUF, 1 << 20);
+        datagrams.bind(new InetSocketAddress(loopback, getPort()));
+        datagrams.configureBlocking(false);
+        datagrams.register(selector, SelectionKey.OP_READ);
+        Arrays.fill(liveIds, -1);
+        this.thread = new Thread(this, "ingest-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    // Counters for monitoring
+    public long getReceived() { return received.get(); }
+    public long getApplied() { return applied.get(); }
+    public long getDropped() { return dropped.get(); }
+    public long getMalformed() { return malformed.get(); }
+    public int getConnections() { return connections; }
+    public int getQueued() { return (int) (tail.get() - head.get()); }
+
+    // Latest car count reported by a detector, or 0 if it has not reported
+    public int getReportedCount(int droneID) {
+        return droneID >= 0 && droneID < reportedCounts.length ? reportedCounts[droneID] : 0;
+    }
+
+    @Override
+    // Selector loop: accept connections, read and decode records, resume paused readers
+    public void run() {
+        while (running) {
+            try {
+                selector.select(SELECT_TIMEOUT_MILLIS);
+                if (readsPaused && freeSpace() >= QUEUE_CAPACITY / 2) {
+                    resumeReads();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.channel() == datagrams) {
+                        readDatagrams();
+                    } else {
+                        readConnection(key);
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.out.println("Ingest server error: " + e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                // A bug rather than bad input; stop serving, so senders see their connections close
+                // instead of waiting on a server that no longer reads
+                System.err.println("Ingest server stopped: " + e);
+                running = false;
+                closeChannels();
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            channel.register(selector, SelectionKey.OP_READ, buffer);
+            connections++;
+        }
+    }
+
+    // Read from one connection, unless the queue might not hold what a full read decodes to
+    private void readConnection(SelectionKey key) {
+        if (freeSpace() < MAX_RECORDS_PER_READ) {
+            pause(key);
+            return;
+        }
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer buffer = (ByteBuffer) key.attachment();
+        try {
+            int read = channel.read(buffer);
+            if (read < 0) {
+                closeConnection(key);
+                return;
+            }
+        } catch (IOException e) {
+            closeConnection(key);
+            return;
+        }
+        buffer.flip();
+        decode(buffer, false);
+        // Keep a partial record for the next read
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            // A full buffer without a complete record: the sender is not speaking the protocol
+            malformed.incrementAndGet();
+            closeConnection(key);
+        }
+    }
+
+    private void readDatagrams() throws IOException {
+        while (true) {
+            datagramBuffer.clear();
+            if (datagrams.receive(datagramBuffer) == null) {
+                return;
+            }
+            datagramBuffer.flip();
+            // A datagram holds whole records; a trailing fragment is malformed
+            decode(datagramBuffer, true);
+            if (datagramBuffer.hasRemaining()) {
+                malformed.incrementAndGet();
+            }
+        }
+    }
+
+    private void pause(SelectionKey key) {
+        key.interestOps(0);
+        pausedKeys.add(key);
+        readsPaused = true;
+    }
+
+    private void resumeReads() {
+        for (SelectionKey key : pausedKeys) {
+            if (key.isValid()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+        pausedKeys.clear();
+        readsPaused = false;
+    }
+
+    private void closeConnection(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Already gone
+        }
+        connections--;
+    }
+
+    // Decode every complete record in the buffer into the queue, leaving the position at the first
+    // incomplete one. Malformed text lines are skipped and counted.
+    private void decode(ByteBuffer buffer, boolean dropWhenFull) {
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            int type = buffer.get(start);
+            if (type == TYPE_DETECTION || type == TYPE_COUNT) {
+                if (buffer.remaining() < BINARY_RECORD_SIZE) {
+                    return;
+                }
+                buffer.get();
+                offer(dropWhenFull, type, buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+                continue;
+            }
+            int end = indexOf(buffer, (byte) '\n', start);
+            if (end < 0) {
+                return;
+            }
+            parseLine(buffer, start, end, dropWhenFull);
+            buffer.position(end + 1);
+        }
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte value, int from) {
+        for (int i = from; i < buffer.limit(); i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Parse "D drone car x y" or "C drone count" between start and end without creating Strings
+    private void parseLine(ByteBuffer buffer, int start, int end, boolean dropWhenFull) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (end == start) {
+            return;
+        }
+        byte kind = buffer.get(start);
+        int expected = kind == 'D' ? 4 : kind == 'C' ? 2 : -1;
+        int[] fields = lineFields;
+        int count = 0;
+        int i = start + 1;
+        while (i < end && count <= 4) {
+            while (i < end && buffer.get(i) == ' ') {
+                i++;
+            }
+            if (i == end) {
+                break;
+            }
+            boolean negative = buffer.get(i) == '-';
+            if (negative) {
+                i++;
+            }
+            int digits = 0;
+            long value = 0;
+            while (i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9') {
+                value = value * 10 + (buffer.get(i) - '0');
+                i++;
+                digits++;
+            }
+            if (digits == 0 || digits > 10 || (i < end && buffer.get(i) != ' ') || count == 4) {
+                malformed.incrementAndGet();
+                return;
+            }
+            fields[count++] = (int) (negative ? -value : value);
+        }
+        if (count != expected) {
+            malformed.incrementAndGet();
+            return;
+        }
+        offer(dropWhenFull, kind == 'D' ? TYPE_DETECTION : TYPE_COUNT, fields[0], fields[1], fields[2], fields[3]);
+    }
+
+    private int freeSpace() {
+        return QUEUE_CAPACITY - (int) (tail.get() - head.get());
+    }
+
+    // Append a record to the queue (selector thread only) and make sure a drain is on its way
+    private void offer(boolean dropWhenFull, int type, int drone, int first, int x, int y) {
+        received.incrementAndGet();
+        if (type == TYPE_DETECTION && first < 0) {
+            // -1 marks an empty entry of the live car map
+            malformed.incrementAndGet();
+            return;
+        }
+        long position = tail.get();
+        if (position - head.get() == QUEUE_CAPACITY) {
+            // TCP reads are not started without room for everything they decode, so only datagrams may be dropped
+            if (!dropWhenFull) {
+                throw new IllegalStateException("Ingest queue overflowed on a TCP read");
+            }
+            dropped.incrementAndGet();
+            return;
+        }
+        int index = (int) position & QUEUE_MASK;
+        types[index] = (byte) type;
+        drones[index] = drone;
+        firsts[index] = first;
+        xs[index] = x;
+        ys[index] = y;
+        tail.lazySet(position + 1);
+        if (drainPosted.compareAndSet(false, true)) {
+            model.post(this::drain);
+        }
+    }
+
+    // Apply up to MAX_RECORDS_PER_TICK queued records to the model; runs on the simulation thread
+    private void drain() {
+        drainPosted.set(false);
+        long start = head.get();
+        long end = Math.min(tail.get(), start + MAX_RECORDS_PER_TICK);
+        for (long position = start; position < end; position++) {
+            int index = (int) position & QUEUE_MASK;
+            if (types[index] == TYPE_DETECTION) {
+                applyDetection(drones[index], firsts[index], xs[index], ys[index]);
+            } else {
+                applyCount(drones[index], firsts[index]);
+            }
+        }
+        head.lazySet(end);
+        applied.addAndGet(end - start);
+        if (end < tail.get() && drainPosted.compareAndSet(false, true)) {
+            // More than one tick's worth is waiting; carry on next tick
+            model.post(this::drain);
+        }
+        if (readsPaused) {
+            selector.wakeup();
+        }
+    }
+
+    // A detected car is scanned, and shown in the model at the reported position
+    private void applyDetection(int droneID, int carID, int x, int y) {
+        CarStore cars = model.getCarStore();
+        int slot = findLiveSlot(carID);
+        if (slot >= 0 && (slot >= cars.size() || cars.getId(slot) != carID)) {
+            // The car was moved by a removal (or the cars were cleared): look for it once and remember
+            slot = -1;
+            for (int candidate = 0; candidate < cars.size(); candidate++) {
+                if (cars.getId(candidate) == carID) {
+                    slot = candidate;
+                    putLiveSlot(carID, slot);
+                    break;
+                }
+            }
+        }
+        if (slot >= 0) {
+            model.setCarState(slot, x, y, cars.isInTraffic(slot), cars.isCrashed(slot));
+        } else {
+            model.addCar(x, y, carID, 0, Car.Direction.RIGHT);
+            putLiveSlot(carID, cars.size() - 1);
+        }
+        model.addExternalScan(carID, droneID, x, y);
+    }
+
+    private void applyCount(int droneID, int count) {
+        if (droneID < 0) {
+            return;
+        }
+        if (droneID >= reportedCounts.length) {
+            reportedCounts = Arrays.copyOf(reportedCounts, Math.max(droneID + 1, reportedCounts.length * 2));
+        }
+        reportedCounts[droneID] = count;
+    }
+
+    // Traffic level a detector's count stands for, as the Python logger's get_traffic_level labels it
+    public String getReportedLevel(int droneID) {
+        return trafficLevel(getReportedCount(droneID));
+    }
+
+    static String trafficLevel(int count) {
+        if (count >= HEAVY_COUNT) {
+            return "Heavy";
+        } else if (count >= MODERATE_COUNT) {
+            return "Moderate";
+        }
+        return "Light";
+    }
+
+    // Open-addressing map from car ID to slot, so repeated detections do not box or search the store
+    private int findLiveSlot(int carID) {
+        int mask = liveIds.length - 1;
+        for (int i = mix(carID) & mask; liveIds[i] != -1; i = (i + 1) & mask) {
+            if (liveIds[i] == carID) {
+                return liveSlots[i];
+            }
+        }
+        return -1;
+    }
+
+    private void putLiveSlot(int carID, int slot) {
+        if ((liveCount + 1) * 2 > liveIds.length) {
+            int[] oldIds = liveIds;
+            int[] oldSlots = liveSlots;
+            liveIds = new int[oldIds.length * 2];
+            liveSlots = new int[oldIds.length * 2];
+            Arrays.fill(liveIds, -1);
+            liveCount = 0;
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldIds[i] != -1) {
+                    putLiveSlot(oldIds[i], oldSlots[i]);
+                }
+            }
+        }
+        int mask = liveIds.length - 1;
+        int i = mix(carID) & mask;
+        while (liveIds[i] != -1 && liveIds[i] != carID) {
+            i = (i + 1) & mask;
+        }
+        if (liveIds[i] == -1) {
+            liveCount++;
+        }
+        liveIds[i] = carID;
+        liveSlots[i] = slot;
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeChannels();
+        selector.close();
+    }
+
+    private void closeChannels() {
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                // Already gone
+            }
+        }
+    }
+
+    // Start the server on the port named by the trafficbot.ingest system property, if it is set
+    // Returns the server so the caller can close it, or null.
+    public static IngestServer startConfigured(SimulationModel model) {
+        Integer port = Integer.getInteger("trafficbot.ingest");
+        if (port == null) {
+            return null;
+        }
+        try {
+            IngestServer server = new IngestServer(model, port);
+            System.out.println("Listening for detections on TCP and UDP port " + server.getPort());
+            return server;
+        } catch (IOException e) {
+            System.out.println("Could not start ingest server on port " + port + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package trafficbot;
+
+import java.util.Arrays;
+
+/*
+ * Autopilot that flies each drone to meet the unscanned cars it can reach soonest.
+ * Every few ticks a drone looks at the nearest unscanned cars, predicts where each will be from its speed and
+ * direction, and works out the first tick at which the drone can be within scan range of it. Cars are scored by
+ * the unscanned cars around them divided by that time, i.e. new scans per tick, and the drone flies straight at
+ * the predicted meeting point of the best one. Drones of a fleet do not chase the same car.
+ * With nothing reachable in sight the drone falls back to its patrol route.
+ */
+public class InterceptAutopilot implements Autopilot {
+    // Nearest unscanned cars considered when picking a target
+    private static final int CANDIDATES = 8;
+    // Ticks between re-plans while the target is still unscanned
+    private static final int REPLAN_TICKS = 8;
+    // Furthest ahead an intercept is predicted (about 4 simulated seconds)
+    private static final int HORIZON_TICKS = 4000 / Constants.FRAME_DELAY;
+    private static final int NO_TARGET = -1;
+
+    // Target car ID and slot per drone ID, and ticks until the next re-plan
+    private int[] targetIds = new int[8];
+    private int[] targetSlots = new int[8];
+    private int[] replanIn = new int[8];
+    // Query buffers, reused between ticks
+    private final int[] candidates = new int[CANDIDATES];
+    private final int[] neighbours = new int[32];
+
+    // Constructor starts every drone without a target
+    public InterceptAutopilot() {
+        Arrays.fill(targetIds, NO_TARGET);
+        Arrays.fill(targetSlots, NO_TARGET);
+    }
+
+    @Override
+    // Keep chasing the current target, re-planning every REPLAN_TICKS or once it is scanned or gone
+    public void steer(SimulationModel model, Drone drone) {
+        int id = drone.getId();
+        ensureCapacity(id);
+        CarStore cars = model.getCarStore();
+        if (!isTargetValid(model, id) || --replanIn[id] <= 0) {
+            plan(model, drone);
+        }
+        int slot = targetSlots[id];
+        int ticks = slot == NO_TARGET ? -1 : interceptTicks(drone, cars, slot, model.getMap());
+        if (ticks < 0) {
+            targetIds[id] = NO_TARGET;
+            targetSlots[id] = NO_TARGET;
+            model.advanceDroneToNextWaypoint(drone);
+            return;
+        }
+        // Fly at the point where the car will be when the drone can reach it
+        int targetX = cars.getX(slot) + velocityX(cars, slot) * ticks;
+        int targetY = cars.getY(slot) + velocityY(cars, slot) * ticks;
+        drone.setPosition(step(drone.getX(), targetX, model.getMap().getWidth() - Constants.DRONE_SIZE),
+                step(drone.getY(), targetY, model.getMap().getHeight() - Constants.DRONE_SIZE));
+    }
+
+    // Pick the reachable unscanned car with the most new scans per tick of flying
+    private void plan(SimulationModel model, Drone drone) {
+        int id = drone.getId();
+        CarStore cars = model.getCarStore();
+        Database db = model.getDatabase();
+        int found = model.findNearestUnscanned(drone.getX(), drone.getY(), candidates);
+        int best = NO_TARGET;
+        double bestScore = 0;
+        for (int i = 0; i < found; i++) {
+            int slot = candidates[i];
+            if (isClaimed(cars.getId(slot), id)) {
+                continue;
+            }
+            int ticks = interceptTicks(drone, cars, slot, model.getMap());
+            if (ticks < 0) {
+                continue;
+            }
+            // Unscanned cars that will be in range along with the target; cars close together on a lane move together
+            int gain = 0;
+            int nearby = model.findCarsInRadius(cars.getX(slot), cars.getY(slot), drone.getScanRange(), neighbours);
+            for (int j = 0; j < nearby; j++) {
+                if (!db.containsCar(cars.getId(neighbours[j]))) {
+                    gain++;
+                }
+            }
+            double score = Math.max(1, gain) / (ticks + 1.0);
+            if (score > bestScore) {
+                bestScore = score;
+                best = slot;
+            }
+        }
+        targetSlots[id] = best;
+        targetIds[id] = best == NO_TARGET ? NO_TARGET : cars.getId(best);
+        replanIn[id] = REPLAN_TICKS;
+    }
+
+    // First tick from now at which the drone can be within scan range of the car, or -1 if it cannot get there
+    // before the car wraps around the world or within the horizon. The drone moves up to DRONE_AUTOPILOT_SPEED
+    // along each axis per tick, so it closes the larger per-axis gap at that rate.
+    static int interceptTicks(Drone drone, CarStore cars, int slot, CityMap map) {
+        int droneX = drone.getX();
+        int droneY = drone.getY();
+        // Per-axis distance that is always inside the scan circle, with a pixel to spare
+        int reach = (int) (drone.getScanRange() / Math.sqrt(2)) - 1;
+        int carX = cars.getX(slot);
+        int carY = cars.getY(slot);
+        int vx = velocityX(cars, slot);
+        int vy = velocityY(cars, slot);
+        for (int t = 0; t <= HORIZON_TICKS; t++) {
+            int x = carX + vx * t;
+            int y = carY + vy * t;
+            if (x < 0 || x > map.getWidth() || y < 0 || y > map.getHeight()) {
+                // The car wraps around to the far edge here; go for something else
+                return -1;
+            }
+            int gap = Math.max(Math.abs(x - droneX), Math.abs(y - droneY));
+            if (gap - Constants.DRONE_AUTOPILOT_SPEED * t <= reach) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    // Pixels per tick the car in a slot moves along each axis
+    static int velocityX(CarStore cars, int slot) {
+        if (cars.isCrashed(slot)) {
+            return 0;
+        }
+        return switch (cars.getDirection(slot)) {
+            case RIGHT -> cars.getSpeed(slot);
+            case LEFT -> -cars.getSpeed(slot);
+            default -> 0;
+        };
+    }
+
+    static int velocityY(CarStore cars, int slot) {
+        if (cars.isCrashed(slot)) {
+            return 0;
+        }
+        return switch (cars.getDirection(slot)) {
+            case DOWN -> cars.getSpeed(slot);
+            case UP -> -cars.getSpeed(slot);
+            default -> 0;
+        };
+    }
+
+    // One autopilot step along an axis towards a target, kept inside the window
+    private static int step(int position, int target, int max) {
+        int delta = Math.max(-Constants.DRONE_AUTOPILOT_SPEED, Math.min(Constants.DRONE_AUTOPILOT_SPEED, target - position));
+        return Math.max(0, Math.min(max, position + delta));
+    }
+
+    // The target is still in its slot (slots move when cars are removed) and still unscanned
+    private boolean isTargetValid(SimulationModel model, int id) {
+        CarStore cars = model.getCarStore();
+        int slot = targetSlots[id];
+        return slot != NO_TARGET && slot < cars.size() && cars.getId(slot) == targetIds[id]
+                && !model.getDatabase().containsCar(targetIds[id]);
+    }
+
+    // Whether another drone is already chasing the car
+    private boolean isClaimed(int carID, int droneID) {
+        for (int other = 0; other < targetIds.length; other++) {
+            if (other != droneID && targetIds[other] == carID) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ensureCapacity(int droneID) {
+        if (droneID >= targetIds.length) {
+            int capacity = Math.max(droneID + 1, targetIds.length * 2);
+            int old = targetIds.length;
+            targetIds = Arrays.copyOf(targetIds, capacity);
+            targetSlots = Arrays.copyOf(targetSlots, capacity);
+            replanIn = Arrays.copyOf(replanIn, capacity);
+            Arrays.fill(targetIds, old, capacity, NO_TARGET);
+            Arrays.fill(targetSlots, old, capacity, NO_TARGET);
+        }
+    }
+}
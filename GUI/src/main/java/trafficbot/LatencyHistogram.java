@@ -0,0 +1,90 @@
+package trafficbot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Lock-free histogram of durations in nanoseconds.
+ * Buckets are log-linear: every power of two is split into SUB_BUCKETS equal parts, so any recorded value
+ * is known to within about 6% while the whole range of a long fits in under a thousand counters.
+ * Recording is one atomic increment and never allocates, so it can sit on the tick path; percentiles are
+ * computed by the (rare) readers from a pass over the counters.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    // Record one duration
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(bucketOf(nanos));
+        total.incrementAndGet();
+        long currentMax;
+        while (nanos > (currentMax = max.get()) && !max.compareAndSet(currentMax, nanos)) {
+            // Another thread raised the maximum; try again against the new one
+        }
+    }
+
+    // Number of durations recorded
+    public long getCount() {
+        return total.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    // Duration at or below which the given fraction (e.g. 0.99) of the recorded durations fall
+    // Reports the top of the bucket the percentile lands in, so it errs on the slow side.
+    public long getPercentile(double fraction) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(bucket), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    // Forget everything recorded so far
+    // Records that race with a reset may be counted on either side of it.
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts.set(bucket, 0);
+        }
+        total.set(0);
+        max.set(0);
+    }
+
+    // Values below SUB_BUCKETS get a bucket each; above that the top SUB_BITS + 1 bits pick the bucket
+    static int bucketOf(long value) {
+        int highestBit = 63 - Long.numberOfLeadingZeros(value | 1);
+        if (highestBit < SUB_BITS) {
+            return (int) value;
+        }
+        int shift = highestBit - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = SUB_BUCKETS + bucket % SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
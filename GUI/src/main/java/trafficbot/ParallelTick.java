@@ -0,0 +1,96 @@
+package trafficbot;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * ParallelTick class for the Traffic Bot Simulator
+ * Runs the per-car phases of a tick (moveCars and updateTrafficStatus) across a ForkJoinPool.
+ * Every slice reads only the current car state and writes only its own slots of the
+ * CarStore's next-state buffers, which are swapped in once all slices finish,
+ * so the result is identical to the serial tick whatever the thread count.
+ */
+public class ParallelTick {
+    // Slices smaller than this are not worth handing to another thread
+    private static final int MIN_SLICE = 1024;
+    // Extra slices per thread so uneven cells still balance out
+    private static final int SLICES_PER_THREAD = 4;
+
+    // Work done on one contiguous range of slots
+    private interface SliceKernel {
+        void run(int from, int to);
+    }
+
+    final private ForkJoinPool pool;
+
+    // Constructor for a pool with the given number of worker threads
+    public ParallelTick(int threads) {
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    // Move every car one step into the next-state buffer, then publish the new positions
+    public void moveCars(CarStore cars) {
+        cars.ensureNextBuffers();
+        runSliced(cars.size(), cars::moveInto);
+        cars.swapPositions();
+    }
+
+    // Recompute every traffic flag into the next-state buffer, then publish the flags
+    // The grid must already reflect the current positions; it is only read here.
+    public void updateTrafficStatus(CarStore cars, SpatialGrid grid, double distance, int threshold) {
+        cars.ensureNextBuffers();
+        runSliced(cars.size(), (from, to) -> {
+            for (int slot = from; slot < to; slot++) {
+                int nearbyCount = grid.countNeighbours(slot, distance);
+                cars.setNextInTraffic(slot, nearbyCount >= threshold);
+            }
+        });
+        cars.swapTraffic();
+    }
+
+    // Stop the worker threads
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // Split [0, count) into slices and run the kernel over them on the pool
+    private void runSliced(int count, SliceKernel kernel) {
+        int slice = Math.max(MIN_SLICE, count / (pool.getParallelism() * SLICES_PER_THREAD) + 1);
+        if (count <= slice) {
+            kernel.run(0, count);
+            return;
+        }
+        pool.invoke(new SliceTask(kernel, 0, count, slice));
+    }
+
+    // Fork/join task that halves its range until it is down to one slice
+    private static final class SliceTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SliceKernel kernel;
+        private final int from;
+        private final int to;
+        private final int slice;
+
+        SliceTask(SliceKernel kernel, int from, int to, int slice) {
+            this.kernel = kernel;
+            this.from = from;
+            this.to = to;
+            this.slice = slice;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= slice) {
+                kernel.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SliceTask(kernel, from, middle, slice), new SliceTask(kernel, middle, to, slice));
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package trafficbot;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Headless batch runner for comparing scenarios and parameters.
+ * Every combination of the given values is run as its own simulation, with its own parameters and scan
+ * database, on a pool with a thread per core; nothing here touches AWT, so it runs on machines without a
+ * display. Each run writes one CSV row as soon as it finishes: scan coverage (cars scanned out of cars seen),
+ * congestion time (simulated seconds with any car in traffic) and the cost of its ticks.
+ *
+ * Usage: java ParameterSweep [key=value[,value...]]...
+ *   scenario, autopilot, drones, scanRange, trafficThreshold, trafficDistance, routeOffset: values to sweep
+ *   seconds: simulated seconds per run, repeats: runs per combination, threads: pool size, out: CSV file
+ */
+public class ParameterSweep {
+    // Swept keys, in CSV column order, with the values used when a key is not given
+    private static final String[][] GRID_KEYS = {
+        { "scenario", "default" },
+        { "autopilot", "route" },
+        { "drones", "1" },
+        { "scanRange", String.valueOf(Constants.SCAN_RANGE) },
+        { "trafficThreshold", String.valueOf(Constants.TRAFFIC_THRESHOLD) },
+        { "trafficDistance", String.valueOf(Constants.TRAFFIC_DISTANCE) },
+        { "routeOffset", "0" }
+    };
+    private static final String HEADER = "run,scenario,autopilot,drones,scanRange,trafficThreshold,trafficDistance,"
+            + "routeOffset,ticks,cars,scanned,coverage,congestedSeconds,tickMeanMicros,tickP50Micros,tickP99Micros,wallMillis";
+
+    final private List<String[]> values = new ArrayList<>();
+    final private long ticks;
+    final private int repeats;
+    final private BufferedWriter csv;
+    final private PrintStream console;
+    final private int runCount;
+    final private AtomicInteger finished = new AtomicInteger();
+
+    // Sweep the values of each key in GRID_KEYS order, writing rows to the CSV as runs finish
+    public ParameterSweep(Map<String, String[]> grid, double seconds, int repeats, BufferedWriter csv, PrintStream console) {
+        int combinations = 1;
+        for (String[] key : GRID_KEYS) {
+            String[] keyValues = grid.getOrDefault(key[0], new String[] { key[1] });
+            values.add(keyValues);
+            combinations = Math.multiplyExact(combinations, keyValues.length);
+        }
+        this.ticks = (long) Math.ceil(seconds * 1000 / Constants.FRAME_DELAY);
+        this.repeats = repeats;
+        this.csv = csv;
+        this.console = console;
+        this.runCount = Math.multiplyExact(combinations, repeats);
+    }
+
+    public int getRunCount() {
+        return runCount;
+    }
+
+    // Run every combination on the given number of threads and wait for all of them
+    public void run(int threads) throws IOException, InterruptedException {
+        writeRow(HEADER);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int run = 0; run < runCount; run++) {
+            int index = run;
+            pool.execute(() -> runSafely(index));
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+    }
+
+    // One failed run is reported and does not stop the others
+    private void runSafely(int run) {
+        try {
+            writeRow(runOne(run));
+        } catch (RuntimeException e) {
+            console.println("Run " + run + " failed: " + e);
+        } catch (IOException e) {
+            console.println("Run " + run + " could not be written: " + e.getMessage());
+        }
+        int done = finished.incrementAndGet();
+        if (done % Math.max(1, runCount / 20) == 0 || done == runCount) {
+            console.println("Finished " + done + " of " + runCount + " runs");
+        }
+    }
+
+    // Values of the combination a run index stands for, in GRID_KEYS order; repeats of a combination are adjacent
+    private String[] combination(int run) {
+        String[] chosen = new String[GRID_KEYS.length];
+        int rest = run / repeats;
+        for (int key = GRID_KEYS.length - 1; key >= 0; key--) {
+            String[] keyValues = values.get(key);
+            chosen[key] = keyValues[rest % keyValues.length];
+            rest /= keyValues.length;
+        }
+        return chosen;
+    }
+
+    // Run one simulation to the end on the calling thread and format its CSV row
+    private String runOne(int run) {
+        String[] chosen = combination(run);
+        SimulationParameters parameters = new SimulationParameters(Integer.parseInt(chosen[3]),
+                Integer.parseInt(chosen[4]), Double.parseDouble(chosen[5]), Integer.parseInt(chosen[6]));
+        Database database = Database.create();
+        SimulationModel model = new SimulationModel(parameters, database);
+        SimulationEngine engine = new SimulationEngine(model);
+        model.setFleetSize(Integer.parseInt(chosen[2]));
+        model.setScenario(SimulationEngine.scenarioByName(chosen[0]));
+        model.setAutopilot(SimulationEngine.autopilotByName(chosen[1]));
+        model.setAutopilotEnabled(true);
+        RunStats stats = new RunStats();
+        engine.addListener(stats);
+
+        long start = System.nanoTime();
+        engine.runTicks(ticks);
+        long elapsed = System.nanoTime() - start;
+        model.setScenario(null);
+
+        int scanned = database.getSize();
+        int seen = stats.seen.size();
+        LatencyHistogram tickTimes = engine.getMetrics().getHistogram(TickMetrics.TICK);
+        return String.format(Locale.ROOT, "%d,%s,%s,%s,%s,%s,%s,%s,%d,%d,%d,%.4f,%.3f,%.2f,%.2f,%.2f,%.1f",
+                run, chosen[0], chosen[1], chosen[2], chosen[3], chosen[4], chosen[5], chosen[6],
+                engine.getTickCount(), seen, scanned, seen == 0 ? 0.0 : (double) scanned / seen,
+                stats.congestedTicks * Constants.FRAME_DELAY / 1000.0, elapsed / 1e3 / Math.max(1, engine.getTickCount()),
+                tickTimes.getPercentile(0.5) / 1e3, tickTimes.getPercentile(0.99) / 1e3, elapsed / 1e6);
+    }
+
+    // Rows from different runs never interleave, and each is on disk once written
+    private synchronized void writeRow(String row) throws IOException {
+        csv.write(row);
+        csv.newLine();
+        csv.flush();
+    }
+
+    // Cars seen and ticks with traffic in one run, updated on that run's thread
+    private static class RunStats implements SimulationListener {
+        final private ConcurrentIdSet seen = new ConcurrentIdSet();
+        private long congestedTicks;
+
+        @Override
+        public void onTick(SimulationModel model, long tick) {
+            CarStore cars = model.getCarStore();
+            boolean congested = false;
+            for (int slot = 0; slot < cars.size(); slot++) {
+                seen.add(cars.getId(slot));
+                congested |= cars.isInTraffic(slot);
+            }
+            if (congested) {
+                congestedTicks++;
+            }
+        }
+    }
+
+    // Parse key=value[,value...] arguments; unknown keys and scenarios are an error so typos do not silently
+    // sweep nothing, or the default scenario, after the pool has started
+    static Map<String, String[]> parseArguments(String[] args) {
+        Map<String, String[]> parsed = new LinkedHashMap<>();
+        List<String> known = new ArrayList<>(Arrays.asList("seconds", "repeats", "threads", "out"));
+        for (String[] key : GRID_KEYS) {
+            known.add(key[0]);
+        }
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0 || !known.contains(arg.substring(0, equals))) {
+                throw new IllegalArgumentException("Expected key=value with a key out of " + known + ": " + arg);
+            }
+            parsed.put(arg.substring(0, equals), arg.substring(equals + 1).split(","));
+        }
+        for (String scenario : parsed.getOrDefault("scenario", new String[0])) {
+            if (!SimulationEngine.isScenarioName(scenario)) {
+                throw new IllegalArgumentException("Unknown scenario, and no such file: " + scenario);
+            }
+        }
+        return parsed;
+    }
+
+    private static String single(Map<String, String[]> arguments, String key, String defaultValue) {
+        String[] value = arguments.get(key);
+        return value == null ? defaultValue : value[0];
+    }
+
+    // Example: java ParameterSweep scenario=default,crash,traffic scanRange=30,50,80 drones=1,4 repeats=10 out=sweep.csv
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String[]> arguments = parseArguments(args);
+        double seconds = Double.parseDouble(single(arguments, "seconds", "60"));
+        int repeats = Integer.parseInt(single(arguments, "repeats", "1"));
+        int threads = Integer.parseInt(single(arguments, "threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        Path out = Path.of(single(arguments, "out", "sweep.csv"));
+
+        // Scenarios report to the console; with thousands of runs that is only noise
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try (BufferedWriter csv = Files.newBufferedWriter(out)) {
+            ParameterSweep sweep = new ParameterSweep(arguments, seconds, repeats, csv, console);
+            console.println("Running " + sweep.getRunCount() + " runs of " + seconds + " simulated s on "
+                    + threads + " threads into " + out);
+            long start = System.nanoTime();
+            sweep.run(threads);
+            console.printf("Finished %d runs in %.1f s%n", sweep.getRunCount(), (System.nanoTime() - start) / 1e9);
+        } finally {
+            System.setOut(console);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package trafficbot;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/*
+ * Retained-mode renderer for the game panel.
+ * The composed frame (background, drone and cars) is kept in a back buffer. Each update compares a frame
+ * snapshot with what was drawn last time, marks the TILE_SIZE tiles under anything that moved or changed
+ * state, and redraws only those tiles. The panel then just copies the back buffer to the screen.
+ * Cars are drawn from cached sprites, grouped by state.
+ */
+public class RetainedRenderer {
+    private static final int TILE_SIZE = 32;
+    // Above this share of dirty tiles a single full redraw is cheaper than tile by tile
+    private static final double FULL_REDRAW_FRACTION = 0.5;
+
+    private final BufferedImage background;
+    private final SpriteCache sprites;
+    private final BufferedImage frame;
+    private final int width;
+    private final int height;
+    private final int columns;
+    private final int rows;
+    private final boolean[] dirty;
+    private int dirtyCount;
+    private boolean fullRedraw;
+
+    // What was drawn last time, by slot
+    private int[] drawnX = new int[0];
+    private int[] drawnY = new int[0];
+    private byte[] drawnState = new byte[0];
+    private int drawnCount;
+    private int[] drawnDroneX = new int[0];
+    private int[] drawnDroneY = new int[0];
+    private int drawnDroneCount;
+
+    // Slots overlapping each tile, rebuilt for partial redraws (counting sort, no allocation once grown)
+    private final int[] tileStart;
+    private int[] tileSlots = new int[0];
+
+    // Constructor for a renderer of the given size
+    public RetainedRenderer(BufferedImage background, int width, int height) {
+        this.background = background;
+        this.width = width;
+        this.height = height;
+        this.sprites = new SpriteCache();
+        this.frame = SpriteCache.createImage(width, height, Transparency.OPAQUE);
+        this.columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        this.rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+        this.dirty = new boolean[columns * rows];
+        this.tileStart = new int[columns * rows + 1];
+        this.fullRedraw = true;
+    }
+
+    // Force the next update to redraw the whole frame
+    public void invalidate() {
+        fullRedraw = true;
+    }
+
+    // The composed frame
+    public BufferedImage getFrame() {
+        return frame;
+    }
+
+    // Bring the back buffer up to date with a frame
+    // Returns the area that changed, or null if nothing did.
+    public Rectangle update(FrameSnapshot snapshot) {
+        int count = snapshot.getCarCount();
+        int droneCount = snapshot.getDroneCount();
+        if (drawnX.length < count) {
+            int capacity = Math.max(count, drawnX.length * 2);
+            drawnX = Arrays.copyOf(drawnX, capacity);
+            drawnY = Arrays.copyOf(drawnY, capacity);
+            drawnState = Arrays.copyOf(drawnState, capacity);
+        }
+        if (drawnDroneX.length < droneCount) {
+            drawnDroneX = Arrays.copyOf(drawnDroneX, droneCount);
+            drawnDroneY = Arrays.copyOf(drawnDroneY, droneCount);
+        }
+
+        if (!fullRedraw) {
+            markChanges(snapshot);
+            if (dirtyCount > dirty.length * FULL_REDRAW_FRACTION) {
+                fullRedraw = true;
+            }
+        }
+
+        // Remember what this frame shows
+        for (int slot = 0; slot < count; slot++) {
+            drawnX[slot] = snapshot.getCarX(slot);
+            drawnY[slot] = snapshot.getCarY(slot);
+            drawnState[slot] = (byte) snapshot.getCarState(slot);
+        }
+        drawnCount = count;
+        for (int i = 0; i < droneCount; i++) {
+            drawnDroneX[i] = snapshot.getDroneX(i);
+            drawnDroneY[i] = snapshot.getDroneY(i);
+        }
+        drawnDroneCount = droneCount;
+
+        Rectangle changed;
+        if (fullRedraw) {
+            drawFull(count);
+            changed = new Rectangle(0, 0, width, height);
+        } else if (dirtyCount > 0) {
+            changed = drawDirtyTiles(count);
+        } else {
+            changed = null;
+        }
+        fullRedraw = false;
+        Arrays.fill(dirty, false);
+        dirtyCount = 0;
+        return changed;
+    }
+
+    // Mark the tiles under everything that differs from the last drawn frame
+    private void markChanges(FrameSnapshot snapshot) {
+        int count = snapshot.getCarCount();
+        int common = Math.min(count, drawnCount);
+        for (int slot = 0; slot < common; slot++) {
+            int x = snapshot.getCarX(slot);
+            int y = snapshot.getCarY(slot);
+            if (x != drawnX[slot] || y != drawnY[slot] || snapshot.getCarState(slot) != drawnState[slot]) {
+                markRect(drawnX[slot], drawnY[slot], Constants.CAR_SIZE);
+                markRect(x, y, Constants.CAR_SIZE);
+            }
+        }
+        // Cars that disappeared or appeared since the last frame
+        for (int slot = count; slot < drawnCount; slot++) {
+            markRect(drawnX[slot], drawnY[slot], Constants.CAR_SIZE);
+        }
+        for (int slot = drawnCount; slot < count; slot++) {
+            markRect(snapshot.getCarX(slot), snapshot.getCarY(slot), Constants.CAR_SIZE);
+        }
+        int droneCount = snapshot.getDroneCount();
+        for (int i = 0; i < Math.max(droneCount, drawnDroneCount); i++) {
+            if (i < drawnDroneCount) {
+                if (i < droneCount && snapshot.getDroneX(i) == drawnDroneX[i] && snapshot.getDroneY(i) == drawnDroneY[i]) {
+                    continue;
+                }
+                markRect(drawnDroneX[i], drawnDroneY[i], Constants.DRONE_SIZE);
+            }
+            if (i < droneCount) {
+                markRect(snapshot.getDroneX(i), snapshot.getDroneY(i), Constants.DRONE_SIZE);
+            }
+        }
+    }
+
+    private void markRect(int x, int y, int size) {
+        int firstColumn = Math.max(0, x / TILE_SIZE);
+        int lastColumn = Math.min(columns - 1, (x + size - 1) / TILE_SIZE);
+        int firstRow = Math.max(0, y / TILE_SIZE);
+        int lastRow = Math.min(rows - 1, (y + size - 1) / TILE_SIZE);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int tile = row * columns + column;
+                if (!dirty[tile]) {
+                    dirty[tile] = true;
+                    dirtyCount++;
+                }
+            }
+        }
+    }
+
+    // Redraw the whole frame: background, drone, then each car state as one group
+    private void drawFull(int count) {
+        Graphics2D g2d = frame.createGraphics();
+        g2d.drawImage(background, 0, 0, null);
+        drawDrones(g2d);
+        for (int state = 0; state < SpriteCache.CAR_STATES; state++) {
+            BufferedImage sprite = sprites.getCarSprite(state);
+            for (int slot = 0; slot < count; slot++) {
+                if (drawnState[slot] == state) {
+                    g2d.drawImage(sprite, drawnX[slot], drawnY[slot], null);
+                }
+            }
+        }
+        g2d.dispose();
+    }
+
+    private void drawDrones(Graphics2D g2d) {
+        for (int i = 0; i < drawnDroneCount; i++) {
+            g2d.drawImage(sprites.getDroneSprite(), drawnDroneX[i], drawnDroneY[i], null);
+        }
+    }
+
+    // Redraw only the dirty tiles, each clipped to itself, and return their bounding box
+    private Rectangle drawDirtyTiles(int count) {
+        bucketSlotsByDirtyTile(count);
+        Graphics2D g2d = frame.createGraphics();
+        Rectangle bounds = null;
+        for (int tile = 0; tile < dirty.length; tile++) {
+            if (!dirty[tile]) {
+                continue;
+            }
+            int tileX = (tile % columns) * TILE_SIZE;
+            int tileY = (tile / columns) * TILE_SIZE;
+            int tileWidth = Math.min(TILE_SIZE, width - tileX);
+            int tileHeight = Math.min(TILE_SIZE, height - tileY);
+            g2d.setClip(tileX, tileY, tileWidth, tileHeight);
+            g2d.drawImage(background, tileX, tileY, tileX + tileWidth, tileY + tileHeight,
+                    tileX, tileY, tileX + tileWidth, tileY + tileHeight, null);
+            drawDrones(g2d);
+            for (int state = 0; state < SpriteCache.CAR_STATES; state++) {
+                BufferedImage sprite = sprites.getCarSprite(state);
+                for (int i = tileStart[tile]; i < tileStart[tile + 1]; i++) {
+                    int slot = tileSlots[i];
+                    if (drawnState[slot] == state) {
+                        g2d.drawImage(sprite, drawnX[slot], drawnY[slot], null);
+                    }
+                }
+            }
+            Rectangle tileRect = new Rectangle(tileX, tileY, tileWidth, tileHeight);
+            bounds = bounds == null ? tileRect : bounds.union(tileRect);
+        }
+        g2d.dispose();
+        return bounds;
+    }
+
+    // Counting sort of the drawn cars into the dirty tiles their sprite overlaps
+    private void bucketSlotsByDirtyTile(int count) {
+        Arrays.fill(tileStart, 0);
+        int total = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int slot = 0; slot < count; slot++) {
+                int x = drawnX[slot];
+                int y = drawnY[slot];
+                int firstColumn = Math.max(0, x / TILE_SIZE);
+                int lastColumn = Math.min(columns - 1, (x + Constants.CAR_SIZE - 1) / TILE_SIZE);
+                int firstRow = Math.max(0, y / TILE_SIZE);
+                int lastRow = Math.min(rows - 1, (y + Constants.CAR_SIZE - 1) / TILE_SIZE);
+                for (int row = firstRow; row <= lastRow; row++) {
+                    for (int column = firstColumn; column <= lastColumn; column++) {
+                        int tile = row * columns + column;
+                        if (!dirty[tile]) {
+                            continue;
+                        }
+                        if (pass == 0) {
+                            tileStart[tile + 1]++;
+                        } else {
+                            tileSlots[tileStart[tile]++] = slot;
+                        }
+                    }
+                }
+            }
+            if (pass == 0) {
+                // Prefix sums give each tile's start; the second pass advances them to the ends
+                for (int tile = 0; tile < dirty.length; tile++) {
+                    tileStart[tile + 1] += tileStart[tile];
+                }
+                total = tileStart[dirty.length];
+                if (tileSlots.length < total) {
+                    tileSlots = new int[Math.max(total, tileSlots.length * 2)];
+                }
+            }
+        }
+        // Shift the ends back into starts
+        System.arraycopy(tileStart, 0, tileStart, 1, dirty.length);
+        tileStart[0] = 0;
+    }
+}
@@ -0,0 +1,35 @@
+package trafficbot;
+
+/*
+ * DistanceKernel that tests one point at a time; runs on any JVM.
+ */
+public class ScalarDistanceKernel implements DistanceKernel {
+    @Override
+    public int countWithin(int[] xs, int[] ys, int count, int x, int y, int limit) {
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            if (isWithin(xs[i], ys[i], x, y, limit)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public int collectWithin(int[] xs, int[] ys, int count, int x, int y, int limit, int[] out, int offset) {
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            if (isWithin(xs[i], ys[i], x, y, limit)) {
+                out[offset + found++] = i;
+            }
+        }
+        return found;
+    }
+
+    // The test for a single point, also used for the tail the vector kernel cannot fill a vector with
+    static boolean isWithin(int pointX, int pointY, int x, int y, int limit) {
+        int dx = Math.min(Math.abs(pointX - x), MAX_OFFSET);
+        int dy = Math.min(Math.abs(pointY - y), MAX_OFFSET);
+        return dx * dx + dy * dy < limit;
+    }
+}
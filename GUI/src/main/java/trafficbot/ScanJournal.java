@@ -0,0 +1,316 @@
+package trafficbot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Append-only, memory-mapped journal of scan events.
+ * Events are fixed 32-byte records written into preallocated segment files that roll over when full.
+ * Each record ends with a checksum that is written last, so a record torn by a crash fails its
+ * check; replay stops there and new records overwrite it.
+ * Appends do not lock: each reserves its record slot with an atomic counter, so several scanning threads
+ * can append at once. Only rolling over to a new segment takes the lock, and the full segment is forced
+ * to disk on a background thread rather than by the appending one. A crash can leave a slot reserved but
+ * never written; replay stops at it like at any torn record.
+ *
+ * Record layout (little endian):
+ *   0 type, 4 car ID, 8 drone ID, 12 x, 16 y, 20 tick (long), 28 checksum
+ * The first record slot of every segment holds a header instead of an event.
+ */
+public class ScanJournal implements AutoCloseable {
+    public static final int TYPE_SCAN = 1;
+    public static final int TYPE_CLEAR = 2;
+
+    public static final int RECORD_SIZE = 32;
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20; // 32 MB segments
+
+    private static final int MAGIC = 0x53434E4A; // "SCNJ"
+    private static final int VERSION = 1;
+    private static final String SEGMENT_PREFIX = "scan-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    // Receives the events found while replaying
+    public interface Visitor {
+        void onScan(int carID, int droneID, long tick, int x, int y);
+        void onClear(long tick);
+    }
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    // Forces full segments to disk in the order they filled up
+    private final ExecutorService forcer;
+    private volatile Segment current;
+    private int segmentIndex;
+    private boolean closed;
+
+    // Open (or create) a journal directory with the default segment size
+    public ScanJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    public ScanJournal(Path directory, int recordsPerSegment) throws IOException {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        Files.createDirectories(directory);
+        this.segmentIndex = -1;
+        this.forcer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scan-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Replay every intact record in order, then position the writer after the last one
+    // Returns the number of events replayed.
+    public synchronized long replay(Visitor visitor) throws IOException {
+        long events = 0;
+        List<Path> segments = listSegments();
+        int lastIndex = -1;
+        int lastPosition = 1;
+        for (Path path : segments) {
+            int index = indexOf(path);
+            try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                if (buffer.capacity() >= RECORD_SIZE && buffer.getInt(0) == 0) {
+                    // Created but the header never landed before a crash; it holds no events
+                    Files.delete(path);
+                    break;
+                }
+                int records = checkHeader(buffer, path);
+                int record = 1;
+                for (; record < records; record++) {
+                    int base = record * RECORD_SIZE;
+                    int type = buffer.getInt(base);
+                    int carID = buffer.getInt(base + 4);
+                    int droneID = buffer.getInt(base + 8);
+                    int x = buffer.getInt(base + 12);
+                    int y = buffer.getInt(base + 16);
+                    long tick = buffer.getLong(base + 20);
+                    if (buffer.getInt(base + 28) != checksum(type, carID, droneID, x, y, tick)) {
+                        break;
+                    }
+                    if (type == TYPE_CLEAR) {
+                        visitor.onClear(tick);
+                    } else {
+                        visitor.onScan(carID, droneID, tick, x, y);
+                    }
+                    events++;
+                }
+                lastIndex = index;
+                lastPosition = record;
+            }
+        }
+        if (lastIndex >= 0) {
+            current = openSegment(lastIndex, lastPosition);
+        }
+        return events;
+    }
+
+    // Append a scan event
+    public void appendScan(int carID, int droneID, long tick, int x, int y) {
+        append(TYPE_SCAN, carID, droneID, x, y, tick);
+    }
+
+    // Append a marker that the database was cleared
+    public void appendClear(long tick) {
+        append(TYPE_CLEAR, 0, 0, 0, 0, tick);
+    }
+
+    // Force written records out to the storage device, waiting for full segments still being forced
+    public synchronized void sync() {
+        Segment segment = current;
+        if (!closed) {
+            try {
+                // The forcer runs in order, so once this task is done every segment before it is on disk
+                forcer.submit(() -> { }).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+
+    // Force and close; appends racing with close are dropped
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        closed = true;
+        forcer.shutdown();
+        Segment segment = current;
+        current = null;
+        if (segment != null) {
+            segment.channel.close();
+        }
+    }
+
+    private void append(int type, int carID, int droneID, int x, int y, long tick) {
+        Segment segment = current;
+        int record;
+        while (segment == null || (record = segment.next.getAndIncrement()) >= segment.records) {
+            segment = roll(segment);
+            if (segment == null) {
+                return;
+            }
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        int base = record * RECORD_SIZE;
+        buffer.putInt(base, type);
+        buffer.putInt(base + 4, carID);
+        buffer.putInt(base + 8, droneID);
+        buffer.putInt(base + 12, x);
+        buffer.putInt(base + 16, y);
+        buffer.putLong(base + 20, tick);
+        // The checksum goes last: until it lands the record does not count
+        buffer.putInt(base + 28, checksum(type, carID, droneID, x, y, tick));
+    }
+
+    // Replace a full (or missing) segment with the next one and return it; whichever appender gets here
+    // first rolls over, the others pick up its segment. Returns null once the journal is closed.
+    private synchronized Segment roll(Segment full) {
+        if (closed) {
+            return null;
+        }
+        if (current != full) {
+            return current;
+        }
+        try {
+            current = openSegment(segmentIndex + 1, 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open journal segment in " + directory, e);
+        }
+        if (full != null) {
+            // Appenders that reserved a slot in the full segment may still be writing it; the mapping stays
+            // valid after its channel is closed, so they finish into it before or while it is forced
+            forcer.execute(() -> {
+                full.buffer.force();
+                try {
+                    full.channel.close();
+                } catch (IOException e) {
+                    System.err.println("Could not close journal segment: " + e.getMessage());
+                }
+            });
+        }
+        return current;
+    }
+
+    // Map a segment for writing, creating and sizing it if it does not exist yet
+    private Segment openSegment(int index, int startRecord) throws IOException {
+        Path path = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+        boolean created = !Files.exists(path);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // An existing segment keeps the size it was created with
+        int records = created ? recordsPerSegment : (int) (channel.size() / RECORD_SIZE);
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) records * RECORD_SIZE);
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        if (created) {
+            segment.putInt(0, MAGIC);
+            segment.putInt(4, VERSION);
+            segment.putInt(8, RECORD_SIZE);
+            segment.putInt(12, records);
+        }
+        segmentIndex = index;
+        return new Segment(channel, segment, records, startRecord);
+    }
+
+    // A mapped segment file and the next record slot to hand out in it
+    private static final class Segment {
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        final int records;
+        final AtomicInteger next;
+
+        Segment(FileChannel channel, MappedByteBuffer buffer, int records, int nextRecord) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.records = records;
+            this.next = new AtomicInteger(nextRecord);
+        }
+    }
+
+    // Validate a segment header and return how many record slots the segment has
+    private static int checkHeader(MappedByteBuffer buffer, Path path) throws IOException {
+        if (buffer.capacity() < RECORD_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(8) != RECORD_SIZE) {
+            throw new IOException("Not a scan journal segment: " + path);
+        }
+        return Math.min(buffer.getInt(12), buffer.capacity() / RECORD_SIZE);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        // Zero-padded names sort in segment order
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static int indexOf(Path path) {
+        String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // Mix the record fields; the low bit is forced on so an all-zero slot never passes
+    private static int checksum(int type, int carID, int droneID, int x, int y, long tick) {
+        int h = 0x9E3779B9;
+        h = mix(h, type);
+        h = mix(h, carID);
+        h = mix(h, droneID);
+        h = mix(h, x);
+        h = mix(h, y);
+        h = mix(h, (int) tick);
+        h = mix(h, (int) (tick >>> 32));
+        return h | 1;
+    }
+
+    private static int mix(int h, int value) {
+        h ^= value * 0xCC9E2D51;
+        h = Integer.rotateLeft(h, 13);
+        return h * 5 + 0xE6546B64;
+    }
+
+    // Replay a journal directory and report how fast it was read: java ScanJournal <directory>
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : "scan-journal");
+        ConcurrentIdSet ids = new ConcurrentIdSet();
+        long start = System.nanoTime();
+        long events;
+        try (ScanJournal journal = new ScanJournal(directory)) {
+            events = journal.replay(new Visitor() {
+                @Override
+                public void onScan(int carID, int droneID, long tick, int x, int y) {
+                    ids.add(carID);
+                }
+
+                @Override
+                public void onClear(long tick) {
+                    ids.clear();
+                }
+            });
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Replayed %d events in %.3f s (%.1f M/s), %d cars in database%n",
+                events, seconds, events / seconds / 1e6, ids.size());
+    }
+}
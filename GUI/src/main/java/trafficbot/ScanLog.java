@@ -0,0 +1,96 @@
+package trafficbot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Background console log for newly scanned cars.
+ * Scanners drop car IDs into a bounded lock-free ring buffer without allocating or blocking;
+ * a daemon thread prints them. If the console cannot keep up, entries are dropped and counted.
+ */
+public class ScanLog implements Runnable {
+    private static final int CAPACITY = 1 << 12;
+    private static final int MASK = CAPACITY - 1;
+    private static final int MAX_BATCH_CHARS = 8192;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final int[] ids = new int[CAPACITY];
+    // Per-slot sequence numbers (bounded MPSC queue): slot i is free for the producer of position p when
+    // sequence == p, and ready for the consumer when sequence == p + 1
+    private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long head;
+    private volatile boolean enabled = true;
+
+    // Constructor starts the printing thread
+    public ScanLog() {
+        for (int i = 0; i < CAPACITY; i++) {
+            sequences.set(i, i);
+        }
+        Thread printer = new Thread(this, "scan-log");
+        printer.setDaemon(true);
+        printer.start();
+    }
+
+    // Turn console output on or off, e.g. for long headless runs
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // Number of entries dropped because the buffer was full
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    // Queue a car ID for printing; never blocks
+    public void logAdded(int carID) {
+        if (!enabled) {
+            return;
+        }
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & MASK;
+            long sequence = sequences.get(slot);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    ids[slot] = carID;
+                    sequences.set(slot, position + 1);
+                    return;
+                }
+                position = tail.get();
+            } else if (sequence < position) {
+                dropped.incrementAndGet();
+                return;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    @Override
+    // Drain the buffer and print in batches
+    public void run() {
+        StringBuilder batch = new StringBuilder();
+        while (true) {
+            int slot = (int) head & MASK;
+            if (sequences.get(slot) == head + 1) {
+                batch.append("Car ").append(ids[slot]).append(" added to database.").append(System.lineSeparator());
+                sequences.set(slot, head + CAPACITY);
+                head++;
+                if (batch.length() >= MAX_BATCH_CHARS) {
+                    System.out.print(batch);
+                    batch.setLength(0);
+                }
+                continue;
+            }
+            if (batch.length() > 0) {
+                System.out.print(batch);
+                batch.setLength(0);
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+}
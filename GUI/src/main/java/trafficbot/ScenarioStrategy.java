@@ -0,0 +1,38 @@
+package trafficbot;
+
+/*
+ * Scenario Strategy Interface
+ * This interface defines the methods for activating and deactivating different scenarios in the simulation model.
+ */
+
+public interface ScenarioStrategy {
+    void activate(SimulationModel model);
+    void deactivate();
+    // Map the scenario is played on; most use the single intersection
+    default CityMap getMap() {
+        return CityMap.INTERSECTION;
+    }
+    // Simulated milliseconds after which the scenario's cars are retired, or 0 to keep them; scenarios that
+    // keep spawning cars set one so the number of cars levels off. -Dtrafficbot.maxCarAge overrides it.
+    default long getCarLifetimeMillis() {
+        return 0;
+    }
+    // Controller run as an agent when the agent runtime is on, or null; called on the simulation thread
+    // after activate. Scenarios without one keep all their logic in update and scheduled tasks.
+    default Agent createAgent() {
+        return null;
+    }
+    // Advance scenario state by one tick, before the cars move; most scenarios have nothing to do
+    default void update(SimulationModel model) {
+    }
+    // Move every drone of the fleet one autopilot step
+    default void updateDroneAuto(SimulationModel model) {
+        for (Drone drone : model.getDrones()) {
+            updateDroneAuto(model, drone);
+        }
+    }
+    // Move one drone one autopilot step; by default the model's autopilot steers it
+    default void updateDroneAuto(SimulationModel model, Drone drone) {
+        model.getAutopilot().steer(model, drone);
+    }
+}
\ No newline at end of file
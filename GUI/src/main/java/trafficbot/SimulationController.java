@@ -0,0 +1,190 @@
+package trafficbot;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/*
+ * SimulationController class for the Traffic Bot Simulator
+ * This class handles user inputs and updates the simulation model.
+ */
+public class SimulationController implements ActionListener, KeyListener {
+
+    /*
+     * Both keyReleased and keyTyped methods are not used in this implementation.
+     * But are required to implement the KeyListener interface.
+     */
+    @Override
+    public void keyReleased(KeyEvent e) {
+    }
+
+    @Override
+    public void keyTyped(KeyEvent e) {
+    }
+
+    final private SimulationModel model;
+    final private GUI view;
+    final private SimulationEngine engine;
+    final private Timer mainTimer;
+
+    // Constructor for SimulationController
+    public SimulationController() {
+        // Initialize model and view
+        model = new SimulationModel();
+        view = new GUI(model);
+        engine = new SimulationEngine(model);
+
+        // Attach this controller as listeners for user inputs
+        view.getAutopilotButton().addActionListener(this);
+        view.getDefaultScenarioButton().addActionListener(this);
+        view.getCrashScenarioButton().addActionListener(this);
+        view.getTrafficScenarioButton().addActionListener(this);
+        view.getCityScenarioButton().addActionListener(this);
+        view.addKeyListener(this);
+
+        // Fleet size can be set with -Dtrafficbot.drones=N
+        model.setFleetSize(Integer.getInteger("trafficbot.drones", 1));
+
+        // Autopilot can be set with -Dtrafficbot.autopilot=intercept; by default drones follow their patrol routes
+        model.setAutopilot(SimulationEngine.autopilotByName(System.getProperty("trafficbot.autopilot", "route")));
+
+        // Cars crash into each other with -Dtrafficbot.collisions=true
+        model.setCollisionsEnabled(Boolean.getBoolean("trafficbot.collisions"));
+
+        // Cars can be despawned at the edges or by age with -Dtrafficbot.despawn and -Dtrafficbot.maxCarAge
+        SimulationEngine.configureLifecycle(model);
+
+        // Car moves and traffic checks run across N worker threads with -Dtrafficbot.threads=N
+        model.setParallelism(Integer.getInteger("trafficbot.threads", 1));
+
+        // Start with default scenario active
+        model.setScenario(new DefaultScenario());
+
+        // The engine publishes a frame snapshot after every tick, then the GUI repaints from it
+        engine.addListener(view.getGamePanel().getFrames());
+        engine.addListener((m, tick) -> view.refresh());
+
+        // Record the run with -Dtrafficbot.record=<file>; the file is flushed when the JVM exits
+        TickRecorder recorder = TickRecorder.attachConfigured(engine);
+        if (recorder != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    recorder.close();
+                } catch (IOException e) {
+                    System.out.println("Could not close recording: " + e.getMessage());
+                }
+            }));
+        }
+
+        // Store scans and traffic levels with -Dtrafficbot.store=<JDBC URL>; queued events are written on exit
+        TrafficStore store = TrafficStore.attachConfigured(engine);
+        if (store != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(store::close));
+        }
+
+        // Keep per-tick traffic history with rollups in a fixed budget with -Dtrafficbot.history=<MB>
+        TrafficHistory.attachConfigured(engine);
+
+        // Fly the drones and run scenario controllers as agents on their own threads with -Dtrafficbot.agents=true
+        AgentRuntime.attachConfigured(engine);
+
+        // Accept live detections with -Dtrafficbot.ingest=<port>
+        IngestServer ingest = IngestServer.startConfigured(model);
+        if (ingest != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    ingest.close();
+                } catch (IOException e) {
+                    System.out.println("Could not close ingest server: " + e.getMessage());
+                }
+            }));
+        }
+
+        // Publish tick timings over JMX; -Dtrafficbot.overlay=true (or F3) also shows them on screen
+        engine.getMetrics().register();
+        view.getGamePanel().setMetrics(engine.getMetrics());
+        view.getGamePanel().setOverlayVisible(Boolean.getBoolean("trafficbot.overlay"));
+
+        // Drive the engine from a Swing timer so ticks run on the event thread alongside input handling
+        long frameNanos = TimeUnit.MILLISECONDS.toNanos(Constants.FRAME_DELAY);
+        mainTimer = new Timer(Constants.FRAME_DELAY, e -> {
+            engine.getMetrics().markFrame(System.nanoTime(), frameNanos);
+            engine.tick();
+        });
+        mainTimer.start();
+    }
+
+    @Override
+    // Handle button actions
+    public void actionPerformed(ActionEvent e) {
+        String command = e.getActionCommand();
+        //Switch case to handle different button actions
+        switch (command) {
+            case "TOGGLE_AUTOPILOT":
+                boolean wasEnabled = model.isAutopilotEnabled();
+                model.toggleAutopilot();
+                if (wasEnabled) {
+                    System.out.println("Manual Mode enabled!");
+                } else {
+                    System.out.println("Autopilot Mode enabled!");
+                }
+                view.requestFocusInWindow();
+                break;
+            case "SCENARIO_DEFAULT":
+                model.setScenario(new DefaultScenario());
+                view.requestFocusInWindow();
+                break;
+            case "SCENARIO_CRASH":
+                model.setScenario(new CrashScenario());
+                view.requestFocusInWindow();
+                break;
+            case "SCENARIO_TRAFFIC":
+                model.setScenario(new TrafficScenario());
+                view.requestFocusInWindow();
+                break;
+            case "SCENARIO_CITY":
+                model.setScenario(new CityScenario());
+                view.requestFocusInWindow();
+                break;
+        }
+    }
+
+    @Override
+    // Handle key events for manual control of the drone
+    public void keyPressed(KeyEvent e) {
+        int key = e.getKeyCode();
+        // F3 toggles the metrics overlay without taking control of the drone
+        if (key == KeyEvent.VK_F3) {
+            view.getGamePanel().setOverlayVisible(!view.getGamePanel().isOverlayVisible());
+            return;
+        }
+
+        // Disable autopilot on manual control
+        model.setAutopilotEnabled(false);
+
+        // Move the drone based on key presses
+        switch (key) {
+            case KeyEvent.VK_UP -> model.moveDrone(0, -Constants.DRONE_MANUAL_MOVE);
+            case KeyEvent.VK_DOWN -> model.moveDrone(0, Constants.DRONE_MANUAL_MOVE);
+            case KeyEvent.VK_LEFT -> model.moveDrone(-Constants.DRONE_MANUAL_MOVE, 0);
+            case KeyEvent.VK_RIGHT -> model.moveDrone(Constants.DRONE_MANUAL_MOVE, 0);
+        }
+
+        // Check for newly scanned cars after moving
+        model.checkProximityToCars();
+
+        // Refresh view immediately
+        view.getGamePanel().publishFrame();
+        view.refresh();
+    }
+    public static void main(String[] args) {
+        Database.getInstance().openConfiguredJournal();
+        SwingUtilities.invokeLater(SimulationController::new);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,347 @@
+package trafficbot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * SimulationEngine class for the Traffic Bot Simulator
+ * Owns the simulation model and advances it in fixed timesteps of FRAME_DELAY simulated milliseconds.
+ * It does not depend on Swing, so it can run headless as fast as possible or throttled to a tick rate,
+ * while views such as the GUI observe it through SimulationListener.
+ */
+public class SimulationEngine implements Runnable {
+    // Stop catching up after this many late ticks so a stalled engine does not spiral
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    final private SimulationModel model;
+    final private List<SimulationListener> listeners;
+    final private TickMetrics metrics;
+    private volatile long tickIntervalNanos;
+    private volatile boolean running;
+    // The background thread stops by itself once the model reaches this tick
+    private volatile long stopTick = Long.MAX_VALUE;
+    private Thread thread;
+
+    // Constructor for SimulationEngine
+    public SimulationEngine(SimulationModel model) {
+        this.model = model;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.metrics = new TickMetrics();
+    }
+
+    public SimulationModel getModel() {
+        return model;
+    }
+
+    // Number of ticks run so far
+    public long getTickCount() {
+        return model.getTick();
+    }
+
+    // Simulated time in milliseconds
+    public long getSimulatedMillis() {
+        return model.getTick() * Constants.FRAME_DELAY;
+    }
+
+    // Phase timings and counters for the ticks run by this engine
+    public TickMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void addListener(SimulationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(SimulationListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Advance the simulation by exactly one fixed timestep
+    public void tick() {
+        long start = System.nanoTime();
+        // Apply work queued by other threads on the simulation thread, then anything scheduled for this tick
+        model.runPendingTasks();
+        model.runScheduledTasks();
+        if (model.getCurrentScenario() != null) {
+            model.getCurrentScenario().update(model);
+        }
+        long tasksDone = System.nanoTime();
+        metrics.record(TickMetrics.TASKS, tasksDone - start);
+
+        // Autopilot movement (if enabled)
+        if (model.isAutopilotEnabled() && model.getCurrentScenario() != null) {
+            model.getCurrentScenario().updateDroneAuto(model);
+        }
+        long autopilotDone = System.nanoTime();
+        metrics.record(TickMetrics.AUTOPILOT, autopilotDone - tasksDone);
+
+        // Update cars and traffic status every frame
+        model.moveCars();
+        model.despawnCars();
+        long moveDone = System.nanoTime();
+        metrics.record(TickMetrics.MOVE, moveDone - autopilotDone);
+
+        // Crash cars that ran into each other (if collisions are on)
+        model.detectCollisions();
+        long collisionsDone = System.nanoTime();
+        metrics.record(TickMetrics.COLLISIONS, collisionsDone - moveDone);
+        model.updateTrafficStatus();
+        model.updateAnalytics();
+        long trafficDone = System.nanoTime();
+        metrics.record(TickMetrics.TRAFFIC_STATUS, trafficDone - collisionsDone);
+
+        // Continuously check for nearby cars to scan
+        model.checkProximityToCars();
+        long proximityDone = System.nanoTime();
+        metrics.record(TickMetrics.PROXIMITY, proximityDone - trafficDone);
+
+        model.advanceTick();
+        for (SimulationListener listener : listeners) {
+            listener.onTick(model, model.getTick());
+        }
+        long end = System.nanoTime();
+        metrics.record(TickMetrics.LISTENERS, end - proximityDone);
+        metrics.endTick(end - start, end, model.getCarStore().size(), model.getScanCount());
+        metrics.recordCarLifecycle(model.getPooledCarSlots(), model.getCarsSpawned(),
+                model.getCarsLeftWorld() + model.getCarsAgedOut());
+        model.clearScanEvents();
+        model.clearCrashEvents();
+    }
+
+    // Run the given number of ticks on the calling thread as fast as possible
+    public void runTicks(long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            tick();
+        }
+    }
+
+    // Start ticking on a background thread
+    // A ticksPerSecond of 0 or less runs as fast as possible, otherwise ticks are paced to that rate.
+    public synchronized void start(double ticksPerSecond) {
+        startUntil(ticksPerSecond, Long.MAX_VALUE);
+    }
+
+    // Start ticking on a background thread that stops by itself after the tick that brings the model to
+    // the given tick; wait for that with awaitStop
+    public synchronized void startUntil(double ticksPerSecond, long tick) {
+        if (running) {
+            return;
+        }
+        stopTick = tick;
+        setTickRate(ticksPerSecond);
+        running = true;
+        thread = new Thread(this, "simulation-engine");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Stop the background thread and wait for the current tick to finish
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    // Wait for the background thread to stop, by itself or through stop
+    public void awaitStop() throws InterruptedException {
+        Thread current;
+        synchronized (this) {
+            current = thread;
+        }
+        if (current != null) {
+            current.join();
+        }
+    }
+
+    // Change the pacing of a running engine
+    public void setTickRate(double ticksPerSecond) {
+        tickIntervalNanos = ticksPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ticksPerSecond) : 0;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    // Fixed timestep loop; late ticks are caught up so simulated time keeps pace with the clock
+    public void run() {
+        long nextTick = System.nanoTime();
+        while (running && model.getTick() < stopTick) {
+            long interval = tickIntervalNanos;
+            if (interval == 0) {
+                tick();
+                nextTick = System.nanoTime();
+                continue;
+            }
+            long now = System.nanoTime();
+            if (now < nextTick) {
+                LockSupport.parkNanos(nextTick - now);
+                continue;
+            }
+            int caughtUp = 0;
+            while (running && model.getTick() < stopTick && now >= nextTick && caughtUp < MAX_CATCH_UP_TICKS) {
+                tick();
+                nextTick += interval;
+                caughtUp++;
+            }
+            if (now >= nextTick) {
+                // Too far behind: drop the backlog instead of running ever longer bursts
+                metrics.addDroppedFrames((now - nextTick) / interval + 1);
+                nextTick = now + interval;
+            }
+        }
+        running = false;
+    }
+
+    // Pick a scenario by name, as used on the command line
+    // Anything that is not a built-in name but is an existing file is streamed as a scenario file; any other
+    // name is an IllegalArgumentException, so a typo does not quietly run the default scenario.
+    public static ScenarioStrategy scenarioByName(String name) {
+        switch (name.toLowerCase()) {
+            case "crash":
+                return new CrashScenario();
+            case "traffic":
+                return new TrafficScenario();
+            case "city":
+                return new CityScenario();
+            case "default":
+                return new DefaultScenario();
+            default:
+                if (!isScenarioFile(name)) {
+                    throw new IllegalArgumentException("Unknown scenario, and no such file: " + name);
+                }
+                return new StreamingScenario(Path.of(name));
+        }
+    }
+
+    // Whether scenarioByName accepts a name, without creating the scenario
+    public static boolean isScenarioName(String name) {
+        switch (name.toLowerCase()) {
+            case "crash":
+            case "traffic":
+            case "city":
+            case "default":
+                return true;
+            default:
+                return isScenarioFile(name);
+        }
+    }
+
+    private static boolean isScenarioFile(String name) {
+        try {
+            return Files.isRegularFile(Path.of(name));
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+
+    // Pick an autopilot by name: "intercept" chases unscanned cars, anything else follows the patrol routes
+    public static Autopilot autopilotByName(String name) {
+        return name.equalsIgnoreCase("intercept") ? new InterceptAutopilot() : Autopilot.FOLLOW_ROUTE;
+    }
+
+    // Despawn cars at the world edges with -Dtrafficbot.despawn=true and after a number of simulated seconds
+    // with -Dtrafficbot.maxCarAge=S; without either, only scenarios that ask for it despawn cars
+    public static void configureLifecycle(SimulationModel model) {
+        model.setDespawnAtEdge(Boolean.getBoolean("trafficbot.despawn"));
+        double maxAge = Double.parseDouble(System.getProperty("trafficbot.maxCarAge", "0"));
+        model.setMaxCarAge((long) Math.ceil(maxAge * 1000 / Constants.FRAME_DELAY));
+    }
+
+    // Headless entry point: java SimulationEngine [scenario] [simulated seconds] [ticks per second] [threads] [drones]
+    public static void main(String[] args) {
+        String scenario = args.length > 0 ? args[0] : "default";
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 60;
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Integer.getInteger("trafficbot.threads", 1);
+        int drones = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+        long ticks = (long) Math.ceil(seconds * 1000 / Constants.FRAME_DELAY);
+        // Before anything is opened, so an unknown scenario leaves no journal or threads behind
+        ScenarioStrategy chosen = scenarioByName(scenario);
+
+        Database.getInstance().openConfiguredJournal();
+        SimulationModel model = new SimulationModel();
+        SimulationEngine engine = new SimulationEngine(model);
+        engine.getMetrics().register();
+        model.setParallelism(threads);
+        model.setFleetSize(drones);
+        model.setScenario(chosen);
+        model.setAutopilot(autopilotByName(System.getProperty("trafficbot.autopilot", "route")));
+        model.setAutopilotEnabled(true);
+        model.setCollisionsEnabled(Boolean.getBoolean("trafficbot.collisions"));
+        configureLifecycle(model);
+        TickRecorder recorder = TickRecorder.attachConfigured(engine);
+        TrafficStore store = TrafficStore.attachConfigured(engine);
+        TrafficHistory history = TrafficHistory.attachConfigured(engine);
+        AgentRuntime agents = AgentRuntime.attachConfigured(engine);
+        IngestServer ingest = IngestServer.startConfigured(model);
+
+        long start = System.nanoTime();
+        if (rate > 0) {
+            // The engine thread stops itself at the last tick; joining it makes the model safe to read here
+            engine.startUntil(rate, model.getTick() + ticks);
+            try {
+                engine.awaitStop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            engine.stop();
+        } else {
+            engine.runTicks(ticks);
+        }
+        long elapsed = System.nanoTime() - start;
+        model.setScenario(null);
+        model.setParallelism(1);
+        Database.getInstance().closeJournal();
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                System.out.println("Could not close recording: " + e.getMessage());
+            }
+        }
+
+        System.out.printf("Ran %d ticks (%.1f simulated s) in %.3f s: %d cars, %d scanned%n",
+                engine.getTickCount(), engine.getSimulatedMillis() / 1000.0, elapsed / 1e9,
+                model.getCars().size(), Database.getInstance().getSize());
+        engine.getMetrics().printSummary();
+        if (model.isCollisionsEnabled()) {
+            System.out.printf("Collisions: %d crashes, %d overlapping pairs found, %d full sorts%n", model.getCrashTotal(),
+                    model.getCollisionDetector().getOverlaps(), model.getCollisionDetector().getFullSorts());
+        }
+        if (store != null) {
+            store.close();
+            System.out.printf("Store: %d events stored in %d commits, %d dropped, %d failed writes%n",
+                    store.getStored(), store.getCommits(), store.getDropped(), store.getFailures());
+        }
+        if (history != null) {
+            history.printSummary();
+        }
+        if (agents != null) {
+            System.out.printf("Agents: %d running, %d started, %d messages delivered, %d dropped%n",
+                    agents.getAgentCount(), agents.getStarted(), agents.getDelivered(), agents.getDropped());
+            agents.close();
+        }
+        if (ingest != null) {
+            System.out.printf("Ingest: %d records received, %d applied, %d dropped, %d malformed%n",
+                    ingest.getReceived(), ingest.getApplied(), ingest.getDropped(), ingest.getMalformed());
+            try {
+                ingest.close();
+            } catch (IOException e) {
+                System.out.println("Could not close ingest server: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package trafficbot;
+
+/*
+ * Simulation Listener Interface
+ * Observers such as the GUI implement this to be told when the engine has finished a tick.
+ */
+
+public interface SimulationListener {
+    void onTick(SimulationModel model, long tick);
+}
@@ -0,0 +1,625 @@
+package trafficbot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntPredicate;
+
+/*
+ * SimulationModel class for the Traffic Bot Simulator
+ * This class represents the simulation model, including the drones and cars.
+ */
+public class SimulationModel {
+    final private SimulationParameters parameters;
+    final private Database database;
+    final private List<Drone> drones;
+    // Read-only view of the fleet, made once so handing it out does not allocate
+    final private List<Drone> droneView;
+    final private CarStore cars;
+    private SpatialGrid grid;
+    private CityMap map = CityMap.INTERSECTION;
+    final private Queue<Runnable> pendingTasks;
+    final private TickScheduler scheduler;
+    final private TrafficAnalytics analytics;
+    // Filter for cars the database has not seen yet
+    final private IntPredicate unscanned;
+    private boolean autopilotEnabled;
+    private Autopilot autopilot = Autopilot.FOLLOW_ROUTE;
+    private ScenarioStrategy currentScenario;
+    private ParallelTick parallelTick;
+    private long tick;
+    // New scans made since the engine last cleared them (normally one tick's worth)
+    private int[] scanCarIds;
+    private int[] scanDroneIds;
+    private int scanCount;
+    // Cars crashing into each other, when collisions are on
+    final private CollisionDetector collisions;
+    final private CollisionDetector.CrashListener crashRecorder;
+    private boolean collisionsEnabled;
+    private long crashTotal;
+    // New crashes since the engine last cleared them, as pairs of car IDs
+    private int[] crashCarIds;
+    private int[] crashOtherIds;
+    private int crashCount;
+    // Car lifecycle: cars leave the world at its edges instead of wrapping (when on) and are retired once
+    // they are maxCarAge ticks old, or as old as the scenario's car lifetime when that is 0
+    private boolean despawnAtEdge;
+    private long maxCarAge;
+    private long carsLeftWorld;
+    private long carsAgedOut;
+
+    // Marks where one tick's pending work ends
+    private static final Runnable END_OF_TICK = () -> { };
+
+    // Constructor for the application's model: default parameters and the shared database
+    public SimulationModel() {
+        this(SimulationParameters.DEFAULTS, Database.getInstance());
+    }
+
+    // Constructor for a model with its own rules and scan database, e.g. one run of a parameter sweep
+    public SimulationModel(SimulationParameters parameters, Database database) {
+        this.parameters = parameters;
+        this.database = database;
+        this.drones = new ArrayList<>();
+        this.droneView = Collections.unmodifiableList(drones);
+        this.cars = new CarStore();
+        this.grid = new SpatialGrid(cars, map.getWidth(), map.getHeight(), parameters.getGridCellSize());
+        this.pendingTasks = new ConcurrentLinkedQueue<>();
+        this.scheduler = new TickScheduler(0);
+        this.analytics = new TrafficAnalytics();
+        this.unscanned = slot -> !database.containsCar(cars.getId(slot));
+        this.scanCarIds = new int[16];
+        this.scanDroneIds = new int[16];
+        this.collisions = new CollisionDetector();
+        this.crashRecorder = (slot, otherSlot) -> recordCrash(cars.getId(slot), cars.getId(otherSlot));
+        this.crashCarIds = new int[16];
+        this.crashOtherIds = new int[16];
+        this.autopilotEnabled = false;
+        this.currentScenario = null;
+        setFleetSize(1);
+    }
+
+    // Getters for drone and cars
+    // The first drone of the fleet is the one flown manually
+    public Drone getDrone() {
+        return drones.get(0);
+    }
+
+    public List<Drone> getDrones() {
+        return droneView;
+    }
+
+    public SimulationParameters getParameters() {
+        return parameters;
+    }
+
+    // Database the drones' scans go into
+    public Database getDatabase() {
+        return database;
+    }
+
+    // Replace the fleet with count drones
+    // A single drone patrols the checkpoints around the intersection; a larger fleet splits the world into
+    // a grid of sectors and gives each drone a loop around its own sector.
+    public void setFleetSize(int count) {
+        drones.clear();
+        if (count <= 1) {
+            Drone drone = new Drone(1, 100, 100);
+            drone.setRoute(parameters.getCheckpoints());
+            drone.setScanRange(parameters.getScanRange());
+            drones.add(drone);
+            return;
+        }
+        int columns = (int) Math.ceil(Math.sqrt(count));
+        int rows = (count + columns - 1) / columns;
+        int sectorWidth = map.getWidth() / columns;
+        int sectorHeight = map.getHeight() / rows;
+        for (int i = 0; i < count; i++) {
+            int left = (i % columns) * sectorWidth;
+            int top = (i / columns) * sectorHeight;
+            // Keep the scan circle inside the sector so neighbouring drones do not overlap
+            int insetX = Math.min(parameters.getScanRange(), sectorWidth / 2);
+            int insetY = Math.min(parameters.getScanRange(), sectorHeight / 2);
+            int[][] route = {
+                { left + insetX, top + insetY },
+                { left + sectorWidth - insetX, top + insetY },
+                { left + sectorWidth - insetX, top + sectorHeight - insetY },
+                { left + insetX, top + sectorHeight - insetY }
+            };
+            Drone drone = new Drone(i + 1, route[0][0], route[0][1]);
+            drone.setRoute(route);
+            drone.setScanRange(parameters.getScanRange());
+            drones.add(drone);
+        }
+    }
+
+    // Road network and size of the world
+    public CityMap getMap() {
+        return map;
+    }
+
+    // Switch to another map; cars are cleared and the fleet's routes are laid out again for the new world
+    public void setMap(CityMap newMap) {
+        if (newMap == map) {
+            return;
+        }
+        map = newMap;
+        cars.clear();
+        cars.setWorldSize(map.getWidth(), map.getHeight());
+        grid = new SpatialGrid(cars, map.getWidth(), map.getHeight(), parameters.getGridCellSize());
+        analytics.setMap(map);
+        setFleetSize(drones.size());
+    }
+
+    public List<Car> getCars() {
+        return cars.asList();
+    }
+
+    // Primitive car storage, for hot loops that should not go through Car views
+    public CarStore getCarStore() {
+        return cars;
+    }
+
+    // Number of ticks the simulation has advanced
+    public long getTick() {
+        return tick;
+    }
+
+    // Called by the engine once all phases of a tick have run
+    public void advanceTick() {
+        tick++;
+    }
+
+    // Getters and setters for autopilot status
+    public boolean isAutopilotEnabled() {
+        return autopilotEnabled;
+    }
+
+    public void setAutopilotEnabled(boolean enabled) {
+        autopilotEnabled = enabled;
+        if (!enabled) {
+            for (Drone drone : drones) {
+                drone.setRouteIndex(0);
+            }
+        }
+    }
+
+    // How drones are steered while autopilot is on (scenarios may still fly them themselves)
+    public Autopilot getAutopilot() {
+        return autopilot;
+    }
+
+    public void setAutopilot(Autopilot autopilot) {
+        this.autopilot = autopilot;
+    }
+
+    // Toggle autopilot status
+    public void toggleAutopilot() {
+        setAutopilotEnabled(!autopilotEnabled);
+    }
+
+    // Move the drone based on user input
+    public void moveDrone(int dx, int dy) {
+        Drone drone = getDrone();
+        int newX = drone.getX() + dx;
+        int newY = drone.getY() + dy;
+        newX = Math.max(0, Math.min(newX, map.getWidth() - Constants.DRONE_SIZE));
+        newY = Math.max(0, Math.min(newY, map.getHeight() - Constants.DRONE_SIZE));
+        drone.setPosition(newX, newY);
+    }
+
+    // Choose how many threads run the per-car phases; 1 or less runs them serially on the calling thread
+    public void setParallelism(int threads) {
+        if (parallelTick != null) {
+            parallelTick.shutdown();
+            parallelTick = null;
+        }
+        if (threads > 1) {
+            parallelTick = new ParallelTick(threads);
+        }
+    }
+
+    public int getParallelism() {
+        return parallelTick == null ? 1 : parallelTick.getParallelism();
+    }
+
+    // Move the drone automatically to the next waypoint
+    public void moveCars() {
+        if (parallelTick != null) {
+            parallelTick.moveCars(cars);
+            // Grid buckets are not thread-safe, so re-file moved cars in one serial pass
+            for (int slot = 0; slot < cars.size(); slot++) {
+                grid.update(slot);
+            }
+            return;
+        }
+        for (int slot = 0; slot < cars.size(); slot++) {
+            cars.move(slot);
+            grid.update(slot);
+        }
+    }
+
+    // Update the traffic status of cars based on proximity to each other
+    // Only cars in neighbouring grid cells can be closer than the traffic distance
+    public void updateTrafficStatus() {
+        double distance = parameters.getTrafficDistance();
+        int threshold = parameters.getTrafficThreshold();
+        if (parallelTick != null) {
+            parallelTick.updateTrafficStatus(cars, grid, distance, threshold);
+            return;
+        }
+        for (int slot = 0; slot < cars.size(); slot++) {
+            int nearbyCount = grid.countNeighbours(slot, distance);
+            cars.setInTraffic(slot, nearbyCount >= threshold);
+        }
+    }
+
+    // Count this tick's traffic into the per-segment sliding windows
+    public void updateAnalytics() {
+        analytics.update(cars);
+    }
+
+    // Sliding-window flow, density, speed and congestion per road segment
+    public TrafficAnalytics getAnalytics() {
+        return analytics;
+    }
+
+    // Spatial queries, e.g. for autopilots
+    // Each writes car slots into the given array and returns how many it wrote, at most slots.length;
+    // positions, speeds and IDs can then be read from getCarStore.
+
+    // The cars not scanned yet that are nearest to (x, y), nearest first
+    public int findNearestUnscanned(int x, int y, int[] slots) {
+        int found = grid.queryNearest(x, y, slots.length, unscanned);
+        return copyResults(found, slots);
+    }
+
+    // Cars strictly closer than radius to (x, y)
+    public int findCarsInRadius(int x, int y, double radius, int[] slots) {
+        return copyResults(grid.queryRadius(x, y, radius), slots);
+    }
+
+    // Cars whose position lies in [left, right) x [top, bottom)
+    public int findCarsInRect(int left, int top, int right, int bottom, int[] slots) {
+        return copyResults(grid.queryRect(left, top, right, bottom), slots);
+    }
+
+    private int copyResults(int found, int[] slots) {
+        int count = Math.min(found, slots.length);
+        for (int i = 0; i < count; i++) {
+            slots[i] = grid.getResult(i);
+        }
+        return count;
+    }
+
+    // Cars within scan range of at least one drone, i.e. what the drones' cameras currently see
+    // A car seen by several drones is counted once.
+    public int countCarsInView() {
+        int count = 0;
+        for (int d = 0; d < drones.size(); d++) {
+            Drone drone = drones.get(d);
+            int found = grid.queryRadius(drone.getX(), drone.getY(), drone.getScanRange());
+            for (int i = 0; i < found; i++) {
+                int slot = grid.getResult(i);
+                boolean seenBefore = false;
+                for (int earlier = 0; earlier < d && !seenBefore; earlier++) {
+                    seenBefore = drones.get(earlier).isInRange(cars.getX(slot), cars.getY(slot));
+                }
+                if (!seenBefore) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Check if any drone is in range of any cars and update the database accordingly
+    // Each drone runs its own grid radius query, which tests the cars of a cell several at a time the same
+    // way Drone.isInRange tests one; the database drops cars another drone already scanned.
+    public void checkProximityToCars() {
+        for (Drone drone : drones) {
+            int found = grid.queryRadius(drone.getX(), drone.getY(), drone.getScanRange());
+            for (int i = 0; i < found; i++) {
+                int slot = grid.getResult(i);
+                if (database.addCar(cars.getId(slot), drone.getId(), tick, cars.getX(slot), cars.getY(slot))) {
+                    recordScan(cars.getId(slot), drone.getId());
+                }
+            }
+        }
+    }
+
+    // Record a scan reported from outside the simulation, e.g. by a live detector
+    // Returns true if the car was not in the database yet.
+    public boolean addExternalScan(int carID, int droneID, int x, int y) {
+        if (database.addCar(carID, droneID, tick, x, y)) {
+            recordScan(carID, droneID);
+            return true;
+        }
+        return false;
+    }
+
+    // Remember a new scan so tick observers can see which cars were scanned and by which drone
+    private void recordScan(int carID, int droneID) {
+        if (scanCount == scanCarIds.length) {
+            scanCarIds = Arrays.copyOf(scanCarIds, scanCount * 2);
+            scanDroneIds = Arrays.copyOf(scanDroneIds, scanCount * 2);
+        }
+        scanCarIds[scanCount] = carID;
+        scanDroneIds[scanCount] = droneID;
+        scanCount++;
+    }
+
+    // New scans since the last clearScanEvents
+    public int getScanCount() {
+        return scanCount;
+    }
+
+    public int getScanCarId(int index) {
+        return scanCarIds[index];
+    }
+
+    public int getScanDroneId(int index) {
+        return scanDroneIds[index];
+    }
+
+    // Called by the engine after the tick observers have seen this tick's scans
+    public void clearScanEvents() {
+        scanCount = 0;
+    }
+
+    // Whether cars whose boxes overlap crash into each other; off unless a scenario or the user turns it on
+    public boolean isCollisionsEnabled() {
+        return collisionsEnabled;
+    }
+
+    public void setCollisionsEnabled(boolean enabled) {
+        collisionsEnabled = enabled;
+    }
+
+    // Crash every pair of cars that ran into each other this tick; called by the engine after the cars move
+    public void detectCollisions() {
+        if (collisionsEnabled) {
+            crashTotal += collisions.detect(cars, crashRecorder);
+        }
+    }
+
+    public CollisionDetector getCollisionDetector() {
+        return collisions;
+    }
+
+    // Crashes since the simulation started
+    public long getCrashTotal() {
+        return crashTotal;
+    }
+
+    // Remember a new crash so tick observers can see which cars ran into each other
+    private void recordCrash(int carID, int otherCarID) {
+        if (crashCount == crashCarIds.length) {
+            crashCarIds = Arrays.copyOf(crashCarIds, crashCount * 2);
+            crashOtherIds = Arrays.copyOf(crashOtherIds, crashCount * 2);
+        }
+        crashCarIds[crashCount] = carID;
+        crashOtherIds[crashCount] = otherCarID;
+        crashCount++;
+    }
+
+    // New crashes since the last clearCrashEvents
+    public int getCrashCount() {
+        return crashCount;
+    }
+
+    public int getCrashCarId(int index) {
+        return crashCarIds[index];
+    }
+
+    public int getCrashOtherCarId(int index) {
+        return crashOtherIds[index];
+    }
+
+    // Called by the engine after the tick observers have seen this tick's crashes
+    public void clearCrashEvents() {
+        crashCount = 0;
+    }
+
+    // Advance the manually flown drone to the next waypoint in autopilot mode
+    public void advanceDroneToNextWaypoint() {
+        advanceDroneToNextWaypoint(getDrone());
+    }
+
+    // Advance a drone towards the next waypoint of its route
+    public void advanceDroneToNextWaypoint(Drone drone) {
+        followRoute(drone);
+    }
+
+    // One step of a drone along its patrol route; uses nothing but the drone, so agents can plan with a copy
+    public static void followRoute(Drone drone) {
+        int[][] route = drone.getRoute();
+        int routeIndex = drone.getRouteIndex();
+        int targetX = route[routeIndex][0];
+        int targetY = route[routeIndex][1];
+        int curX = drone.getX();
+        int curY = drone.getY();
+        if (curX < targetX) {
+            curX += Constants.DRONE_AUTOPILOT_SPEED;
+        } else if (curX > targetX) {
+            curX -= Constants.DRONE_AUTOPILOT_SPEED;
+        }
+        if (curY < targetY) {
+            curY += Constants.DRONE_AUTOPILOT_SPEED;
+        } else if (curY > targetY) {
+            curY -= Constants.DRONE_AUTOPILOT_SPEED;
+        }
+        drone.setPosition(curX, curY);
+        if (Math.abs(curX - targetX) < Constants.DRONE_AUTOPILOT_SPEED &&
+            Math.abs(curY - targetY) < Constants.DRONE_AUTOPILOT_SPEED) {
+            drone.setRouteIndex((routeIndex + 1) % route.length);
+        }
+    }
+
+    // Set the current scenario and activate it on the map it is played on
+    public void setScenario(ScenarioStrategy scenario) {
+        if (currentScenario != null) {
+            currentScenario.deactivate();
+        }
+        currentScenario = scenario;
+        cars.setWrapping(!isDespawnAtEdge());
+        if (currentScenario != null) {
+            setMap(currentScenario.getMap());
+            currentScenario.activate(this);
+        }
+    }
+
+    // Get the current scenario
+    public ScenarioStrategy getCurrentScenario() {
+        return currentScenario;
+    }
+
+    // Clear all cars from the simulation
+    public void clearCars() {
+        cars.clear();
+        grid.clear();
+        analytics.reset();
+    }
+
+    // Add a car to the simulation
+    public void addCar(Car car) {
+        spawned(cars.add(car));
+    }
+
+    // Add a car without creating a Car object
+    // The store reuses the slots of retired cars, so once the population is steady this does not allocate.
+    public void addCar(int x, int y, int id, int speed, Car.Direction direction) {
+        spawned(cars.add(x, y, id, speed, direction));
+    }
+
+    private void spawned(int slot) {
+        cars.setSpawnTick(slot, tick);
+        grid.insert(slot);
+    }
+
+    // Overwrite the state of the car in a slot, e.g. when showing a recorded frame
+    public void setCarState(int slot, int x, int y, boolean inTraffic, boolean crashed) {
+        cars.setPosition(slot, x, y);
+        cars.setInTraffic(slot, inTraffic);
+        cars.setCrashed(slot, crashed);
+        grid.update(slot);
+    }
+
+    // Remove a car from the simulation; a car that is not in this model's store is ignored
+    public void removeCar(Car car) {
+        if (car.getStore() == cars) {
+            removeSlot(car.getSlot());
+        }
+    }
+
+    // Remove the car in a slot, keeping the grid in step with the store's swap-remove
+    public void removeSlot(int slot) {
+        grid.remove(slot);
+        int moved = cars.remove(slot);
+        if (moved >= 0) {
+            grid.relabel(moved, slot);
+        }
+    }
+
+    // Whether cars that drive off the world are despawned instead of wrapping around to the far edge
+    public boolean isDespawnAtEdge() {
+        return despawnAtEdge;
+    }
+
+    // Despawn cars at the edges whatever the scenario; off by default
+    public void setDespawnAtEdge(boolean enabled) {
+        despawnAtEdge = enabled;
+        cars.setWrapping(!isDespawnAtEdge());
+    }
+
+    // Ticks after which a car is retired, or 0 to keep cars for as long as they stay in the world
+    // Without a maximum set here, the current scenario's car lifetime applies.
+    public long getMaxCarAge() {
+        if (maxCarAge > 0 || currentScenario == null) {
+            return maxCarAge;
+        }
+        return (long) Math.ceil((double) currentScenario.getCarLifetimeMillis() / Constants.FRAME_DELAY);
+    }
+
+    public void setMaxCarAge(long ticks) {
+        maxCarAge = Math.max(0, ticks);
+    }
+
+    // Retire cars that left the world or reached the maximum age; called by the engine after the cars move
+    // Cars are removed from the back, so the car a removal moves into the freed slot has already been checked.
+    public void despawnCars() {
+        boolean atEdge = !cars.isWrapping();
+        long maxAge = getMaxCarAge();
+        if (!atEdge && maxAge == 0) {
+            return;
+        }
+        long bornBefore = tick - maxAge;
+        for (int slot = cars.size() - 1; slot >= 0; slot--) {
+            if (atEdge && cars.isOutsideWorld(slot)) {
+                removeSlot(slot);
+                carsLeftWorld++;
+            } else if (maxAge > 0 && cars.getSpawnTick(slot) <= bornBefore) {
+                removeSlot(slot);
+                carsAgedOut++;
+            }
+        }
+    }
+
+    // Lifecycle counts: cars spawned since the model was created, free slots kept for reuse, and cars
+    // despawned at the edges or by age (the rest of the removed cars were cleared by scenarios)
+    public long getCarsSpawned() {
+        return cars.getAdded();
+    }
+
+    public int getPooledCarSlots() {
+        return cars.capacity() - cars.size();
+    }
+
+    public long getCarsLeftWorld() {
+        return carsLeftWorld;
+    }
+
+    public long getCarsAgedOut() {
+        return carsAgedOut;
+    }
+
+    // Queue work from another thread to run on the simulation thread before the next tick
+    public void post(Runnable task) {
+        pendingTasks.add(task);
+    }
+
+    // Run all queued work; called by the engine at the start of each tick
+    // Work posted while this runs, including by the tasks themselves, waits for the next tick.
+    // A task that throws is reported and skipped, so one bad ingest record or agent move does not stop the tick.
+    public void runPendingTasks() {
+        pendingTasks.add(END_OF_TICK);
+        Runnable task = null;
+        try {
+            while ((task = pendingTasks.poll()) != END_OF_TICK) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Posted task failed: " + e);
+                }
+            }
+        } finally {
+            // Should an error escape, take the marker out, or every later tick would stop at it
+            if (task != END_OF_TICK) {
+                pendingTasks.remove(END_OF_TICK);
+            }
+        }
+    }
+
+    // Scheduler for work in simulated time, e.g. scenario spawns and checks
+    public TickScheduler getScheduler() {
+        return scheduler;
+    }
+
+    // Run the scheduled tasks due in the tick about to run; called by the engine at the start of each tick
+    public void runScheduledTasks() {
+        scheduler.advanceTo(tick + 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+package trafficbot;
+
+/*
+ * Tunable rules of one simulation: how far drones scan, when cars count as in traffic, and where the
+ * single drone patrols. Each model has its own, so runs with different values can share a JVM.
+ * DEFAULTS are the values in Constants and the original checkpoints at the intersection corners.
+ */
+public final class SimulationParameters {
+    public static final SimulationParameters DEFAULTS = new SimulationParameters(
+            Constants.SCAN_RANGE, Constants.TRAFFIC_THRESHOLD, Constants.TRAFFIC_DISTANCE, 0);
+
+    final private int scanRange;
+    final private int trafficThreshold;
+    final private double trafficDistance;
+    final private int routeOffset;
+    final private int[][] checkpoints;
+
+    // scanRange: drone scan radius in pixels
+    // trafficThreshold, trafficDistance: a car is in traffic with this many others closer than this distance
+    // routeOffset: how far the single drone's patrol square reaches out past the intersection corners
+    public SimulationParameters(int scanRange, int trafficThreshold, double trafficDistance, int routeOffset) {
+        if (scanRange <= 0 || trafficDistance < 1) {
+            throw new IllegalArgumentException("Scan range and traffic distance must be positive");
+        }
+        this.scanRange = scanRange;
+        this.trafficThreshold = trafficThreshold;
+        this.trafficDistance = trafficDistance;
+        this.routeOffset = routeOffset;
+        int left = Constants.VERTICAL_ROAD_X - routeOffset;
+        int right = Constants.VERTICAL_ROAD_X + Constants.ROAD_WIDTH + routeOffset;
+        int top = Constants.HORIZONTAL_ROAD_Y - routeOffset;
+        int bottom = Constants.HORIZONTAL_ROAD_Y + Constants.ROAD_WIDTH + routeOffset;
+        this.checkpoints = new int[][] {
+            { right, top },
+            { right, bottom },
+            { left, bottom },
+            { left, top }
+        };
+    }
+
+    public int getScanRange() { return scanRange; }
+    public int getTrafficThreshold() { return trafficThreshold; }
+    public double getTrafficDistance() { return trafficDistance; }
+    public int getRouteOffset() { return routeOffset; }
+
+    // Autopilot waypoints of the single drone; shared, so not to be changed
+    public int[][] getCheckpoints() { return checkpoints; }
+
+    // Side of the spatial grid's cells: no car closer than the traffic distance is more than a cell away
+    int getGridCellSize() {
+        return (int) Math.ceil(trafficDistance);
+    }
+}
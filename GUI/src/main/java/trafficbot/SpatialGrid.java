@@ -0,0 +1,287 @@
+package trafficbot;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/*
+ * Uniform grid spatial index over the cars in a CarStore.
+ * Cells are TRAFFIC_DISTANCE wide, so every car closer than TRAFFIC_DISTANCE to a car
+ * lies in that car's cell or one of its eight neighbouring cells.
+ * The grid remembers each slot's cell and position in that cell, so inserts, removes and moves are O(1).
+ * Each cell also keeps its cars' coordinates packed next to its slots, so the distance tests of neighbour
+ * counts and radius queries run over contiguous arrays in a DistanceKernel, several cars at a time.
+ * Radius, rectangle and k-nearest queries only visit the cells that can hold an answer and leave their
+ * results in a reused buffer, read back with getResult.
+ */
+
+public class SpatialGrid {
+    private final CarStore store;
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[][] cells;
+    // Coordinates of the cars in each cell, in the same order as the slots in cells
+    private final int[][] cellXs;
+    private final int[][] cellYs;
+    private final int[] counts;
+    private final DistanceKernel kernel;
+    private int[] cellOfSlot;
+    private int[] indexInCell;
+    private int[] results = new int[64];
+    private long[] resultDistances = new long[64];
+    private int resultCount;
+
+    // Constructor for a grid covering the given world size
+    public SpatialGrid(CarStore store, int worldWidth, int worldHeight, int cellSize) {
+        this(store, worldWidth, worldHeight, cellSize, DistanceKernels.best());
+    }
+
+    // Constructor for a grid that runs its distance tests in the given kernel
+    public SpatialGrid(CarStore store, int worldWidth, int worldHeight, int cellSize, DistanceKernel kernel) {
+        this.store = store;
+        this.kernel = kernel;
+        this.cellSize = cellSize;
+        // Cars may sit exactly on the far edge after wrapping, so add one extra cell
+        this.columns = worldWidth / cellSize + 1;
+        this.rows = worldHeight / cellSize + 1;
+        this.cells = new int[columns * rows][];
+        this.cellXs = new int[columns * rows][];
+        this.cellYs = new int[columns * rows][];
+        this.counts = new int[columns * rows];
+        this.cellOfSlot = new int[store.capacity()];
+        this.indexInCell = new int[store.capacity()];
+    }
+
+    // Add a slot to the cell containing its current position
+    public void insert(int slot) {
+        if (slot >= cellOfSlot.length) {
+            int capacity = Math.max(store.capacity(), slot + 1);
+            cellOfSlot = Arrays.copyOf(cellOfSlot, capacity);
+            indexInCell = Arrays.copyOf(indexInCell, capacity);
+        }
+        int x = store.getX(slot);
+        int y = store.getY(slot);
+        int cell = cellOf(x, y);
+        int[] bucket = cells[cell];
+        int count = counts[cell];
+        if (bucket == null) {
+            bucket = new int[4];
+            cells[cell] = bucket;
+            cellXs[cell] = new int[4];
+            cellYs[cell] = new int[4];
+        } else if (count == bucket.length) {
+            bucket = Arrays.copyOf(bucket, count * 2);
+            cells[cell] = bucket;
+            cellXs[cell] = Arrays.copyOf(cellXs[cell], count * 2);
+            cellYs[cell] = Arrays.copyOf(cellYs[cell], count * 2);
+        }
+        bucket[count] = slot;
+        cellXs[cell][count] = x;
+        cellYs[cell][count] = y;
+        counts[cell] = count + 1;
+        cellOfSlot[slot] = cell;
+        indexInCell[slot] = count;
+    }
+
+    // Remove a slot from its cell by swapping the last entry of the cell into its place
+    public void remove(int slot) {
+        int cell = cellOfSlot[slot];
+        int[] bucket = cells[cell];
+        int last = --counts[cell];
+        int moved = bucket[last];
+        int index = indexInCell[slot];
+        bucket[index] = moved;
+        cellXs[cell][index] = cellXs[cell][last];
+        cellYs[cell][index] = cellYs[cell][last];
+        indexInCell[moved] = index;
+    }
+
+    // The store moved the car in slot 'from' into slot 'to'; point the grid entry at the new slot
+    public void relabel(int from, int to) {
+        int cell = cellOfSlot[from];
+        cells[cell][indexInCell[from]] = to;
+        cellOfSlot[to] = cell;
+        indexInCell[to] = indexInCell[from];
+    }
+
+    // Re-file a slot after it has moved; if it stayed in the same cell only its packed position changes
+    public void update(int slot) {
+        int x = store.getX(slot);
+        int y = store.getY(slot);
+        int cell = cellOfSlot[slot];
+        if (cellOf(x, y) != cell) {
+            remove(slot);
+            insert(slot);
+        } else {
+            cellXs[cell][indexInCell[slot]] = x;
+            cellYs[cell][indexInCell[slot]] = y;
+        }
+    }
+
+    // Remove every slot from the grid
+    public void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    // Count the other cars strictly closer than distance to the car in the given slot
+    public int countNeighbours(int slot, double distance) {
+        int x = store.getX(slot);
+        int y = store.getY(slot);
+        int limit = DistanceKernel.limitFor(distance);
+        int reach = (int) Math.ceil(distance / cellSize);
+        int column = columnOf(x);
+        int row = rowOf(y);
+        int count = 0;
+        for (int r = Math.max(0, row - reach); r <= Math.min(rows - 1, row + reach); r++) {
+            for (int c = Math.max(0, column - reach); c <= Math.min(columns - 1, column + reach); c++) {
+                int cell = r * columns + c;
+                if (counts[cell] > 0) {
+                    count += kernel.countWithin(cellXs[cell], cellYs[cell], counts[cell], x, y, limit);
+                }
+            }
+        }
+        // The car itself is at distance 0, which is inside any limit
+        return count - 1;
+    }
+
+    // Collect the slots of the cars strictly closer than radius to (x, y), in no particular order
+    public int queryRadius(int x, int y, double radius) {
+        int limit = DistanceKernel.limitFor(radius);
+        int reach = (int) Math.ceil(radius / cellSize);
+        int column = columnOf(x);
+        int row = rowOf(y);
+        resultCount = 0;
+        for (int r = Math.max(0, row - reach); r <= Math.min(rows - 1, row + reach); r++) {
+            for (int c = Math.max(0, column - reach); c <= Math.min(columns - 1, column + reach); c++) {
+                int cell = r * columns + c;
+                int count = counts[cell];
+                if (count == 0) {
+                    continue;
+                }
+                if (resultCount + count > results.length) {
+                    results = Arrays.copyOf(results, Math.max(results.length * 2, resultCount + count));
+                    resultDistances = Arrays.copyOf(resultDistances, results.length);
+                }
+                // The kernel leaves indexes into the cell, which are turned into slots in place
+                int found = kernel.collectWithin(cellXs[cell], cellYs[cell], count, x, y, limit, results, resultCount);
+                int[] bucket = cells[cell];
+                for (int i = resultCount; i < resultCount + found; i++) {
+                    results[i] = bucket[results[i]];
+                }
+                resultCount += found;
+            }
+        }
+        return resultCount;
+    }
+
+    // Collect the slots of the cars whose position lies in [left, right) x [top, bottom)
+    public int queryRect(int left, int top, int right, int bottom) {
+        resultCount = 0;
+        if (right <= left || bottom <= top) {
+            return 0;
+        }
+        for (int r = rowOf(top); r <= rowOf(bottom - 1); r++) {
+            for (int c = columnOf(left); c <= columnOf(right - 1); c++) {
+                int cell = r * columns + c;
+                int[] bucket = cells[cell];
+                for (int i = 0; i < counts[cell]; i++) {
+                    int slot = bucket[i];
+                    int carX = store.getX(slot);
+                    int carY = store.getY(slot);
+                    if (carX >= left && carX < right && carY >= top && carY < bottom) {
+                        addResult(slot);
+                    }
+                }
+            }
+        }
+        return resultCount;
+    }
+
+    // Collect the k cars nearest to (x, y) that pass the filter, nearest first
+    // Searches rings of cells outwards from (x, y) and stops once no unvisited cell can hold anything nearer
+    // than the k-th car found, so the cost depends on how far away the answers are, not on the car count.
+    public int queryNearest(int x, int y, int k, IntPredicate filter) {
+        resultCount = 0;
+        if (k <= 0) {
+            return 0;
+        }
+        if (results.length < k) {
+            results = new int[k];
+            resultDistances = new long[k];
+        }
+        int column = columnOf(x);
+        int row = rowOf(y);
+        int maxRing = Math.max(columns, rows);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = row - ring; r <= row + ring; r++) {
+                if (r < 0 || r >= rows) {
+                    continue;
+                }
+                // Inner rows of the ring only have their two end cells on it
+                int step = r == row - ring || r == row + ring ? 1 : Math.max(1, 2 * ring);
+                for (int c = column - ring; c <= column + ring; c += step) {
+                    if (c >= 0 && c < columns) {
+                        offerNearest(r * columns + c, x, y, k, filter);
+                    }
+                }
+            }
+            // Every car in a cell outside this ring is at least ring cells away
+            long bound = (long) ring * cellSize;
+            if (resultCount == k && resultDistances[k - 1] <= bound * bound) {
+                break;
+            }
+        }
+        return resultCount;
+    }
+
+    // Insert the cell's cars into the sorted k-best list
+    private void offerNearest(int cell, int x, int y, int k, IntPredicate filter) {
+        int[] bucket = cells[cell];
+        for (int i = 0; i < counts[cell]; i++) {
+            int slot = bucket[i];
+            long dx = x - store.getX(slot);
+            long dy = y - store.getY(slot);
+            long distance = dx * dx + dy * dy;
+            if (resultCount == k && distance >= resultDistances[k - 1]) {
+                continue;
+            }
+            if (!filter.test(slot)) {
+                continue;
+            }
+            int position = resultCount < k ? resultCount++ : k - 1;
+            while (position > 0 && resultDistances[position - 1] > distance) {
+                results[position] = results[position - 1];
+                resultDistances[position] = resultDistances[position - 1];
+                position--;
+            }
+            results[position] = slot;
+            resultDistances[position] = distance;
+        }
+    }
+
+    private void addResult(int slot) {
+        if (resultCount == results.length) {
+            results = Arrays.copyOf(results, resultCount * 2);
+            resultDistances = Arrays.copyOf(resultDistances, resultCount * 2);
+        }
+        results[resultCount++] = slot;
+    }
+
+    // Slot found by the last query
+    public int getResult(int index) {
+        return results[index];
+    }
+
+    // Cells are clamped so cars placed off screen still land in an edge cell
+    private int columnOf(int x) {
+        return Math.max(0, Math.min(columns - 1, x / cellSize));
+    }
+
+    private int rowOf(int y) {
+        return Math.max(0, Math.min(rows - 1, y / cellSize));
+    }
+
+    private int cellOf(int x, int y) {
+        return rowOf(y) * columns + columnOf(x);
+    }
+}
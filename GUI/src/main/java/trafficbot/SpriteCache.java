@@ -0,0 +1,74 @@
+package trafficbot;
+
+import java.awt.Color;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/*
+ * Pre-rasterized sprites for the drone and for each car state.
+ * Sprites are drawn once with anti-aliasing and then only copied, so the per-car cost is one image blit
+ * instead of an anti-aliased oval fill and a colour change.
+ * Images are created compatible with the screen when there is one, which lets Java2D keep them in video memory.
+ */
+public class SpriteCache {
+    // Car states, in the order they are drawn (later states are drawn on top)
+    public static final int CAR_NORMAL = 0;
+    public static final int CAR_IN_TRAFFIC = 1;
+    public static final int CAR_STATES = 2;
+
+    private static final Color[] CAR_COLORS = { Color.BLUE, Color.YELLOW };
+
+    private final BufferedImage[] carSprites = new BufferedImage[CAR_STATES];
+    private final BufferedImage droneSprite;
+
+    // Constructor renders every sprite
+    public SpriteCache() {
+        for (int state = 0; state < CAR_STATES; state++) {
+            BufferedImage sprite = createImage(Constants.CAR_SIZE, Constants.CAR_SIZE, Transparency.TRANSLUCENT);
+            Graphics2D g2d = sprite.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setColor(CAR_COLORS[state]);
+            g2d.fillOval(0, 0, Constants.CAR_SIZE, Constants.CAR_SIZE);
+            g2d.dispose();
+            carSprites[state] = sprite;
+        }
+        droneSprite = createImage(Constants.DRONE_SIZE, Constants.DRONE_SIZE, Transparency.OPAQUE);
+        Graphics2D g2d = droneSprite.createGraphics();
+        g2d.setColor(Color.RED);
+        g2d.fillRect(0, 0, Constants.DRONE_SIZE, Constants.DRONE_SIZE);
+        g2d.dispose();
+    }
+
+    // State index of the car in a slot
+    public static int stateOf(CarStore cars, int slot) {
+        return cars.isInTraffic(slot) ? CAR_IN_TRAFFIC : CAR_NORMAL;
+    }
+
+    // Flat colour of a car state, for cars drawn too small for a sprite to show
+    public static Color getCarColor(int state) {
+        return CAR_COLORS[state];
+    }
+
+    public BufferedImage getCarSprite(int state) {
+        return carSprites[state];
+    }
+
+    public BufferedImage getDroneSprite() {
+        return droneSprite;
+    }
+
+    // Create an image in the screen's native format, or a plain RGB or ARGB image when running headless
+    public static BufferedImage createImage(int width, int height, int transparency) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return config.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height,
+                transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+}
@@ -0,0 +1,343 @@
+package trafficbot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/*
+ * Scenario that spawns cars from a scenario file as simulated time reaches them.
+ * The file is read by a background thread into a small, fixed set of spawn batches that are handed to
+ * the simulation thread and recycled, so only a few thousand spawns are ever held in memory no matter
+ * how many cars the file describes.
+ *
+ * Scenario file format: one spawn per line, ordered by time
+ *   <time ms> <x> <y> <speed> <RIGHT|LEFT|DOWN|UP> [car ID]
+ * Time is simulated milliseconds after activation; a line out of order is spawned as soon as it is reached.
+ * Cars without an ID are numbered from 1 in file order.
+ * Blank lines and lines starting with # are ignored.
+ */
+public class StreamingScenario implements ScenarioStrategy {
+    private static final int BATCH_SIZE = 4096;
+    // Batches in flight between the reader and the simulation; bounds memory to BATCHES * BATCH_SIZE spawns
+    private static final int BATCHES = 4;
+
+    // A block of parsed spawns, reused once the simulation has consumed it
+    private static final class SpawnBatch {
+        final long[] time = new long[BATCH_SIZE];
+        final int[] x = new int[BATCH_SIZE];
+        final int[] y = new int[BATCH_SIZE];
+        final int[] speed = new int[BATCH_SIZE];
+        final byte[] direction = new byte[BATCH_SIZE];
+        final int[] id = new int[BATCH_SIZE];
+        int count;
+        // Set on the batch that ends the file, or on the batch that reports a read error
+        boolean last;
+        String error;
+    }
+
+    private static final Car.Direction[] DIRECTIONS = Car.Direction.values();
+
+    final private Path file;
+    private BlockingQueue<SpawnBatch> ready;
+    private BlockingQueue<SpawnBatch> free;
+    private Thread reader;
+
+    private SpawnBatch current;
+    private int index;
+    private long startTick;
+    private long spawned;
+
+    // Constructor for a scenario read from the given file
+    public StreamingScenario(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    // Clear the world and start reading the file in the background
+    public void activate(SimulationModel model) {
+        System.out.println("Scenario " + file.getFileName() + " Activated!");
+        Database db = model.getDatabase();
+        if (db.getSize() > 0) {
+            db.clear(model.getTick());
+        }
+        model.clearCars();
+
+        ready = new ArrayBlockingQueue<>(BATCHES);
+        free = new ArrayBlockingQueue<>(BATCHES);
+        for (int i = 0; i < BATCHES; i++) {
+            free.add(new SpawnBatch());
+        }
+        current = null;
+        index = 0;
+        spawned = 0;
+        startTick = model.getTick();
+        BlockingQueue<SpawnBatch> readyBatches = ready;
+        BlockingQueue<SpawnBatch> freeBatches = free;
+        reader = new Thread(() -> readFile(readyBatches, freeBatches), "scenario-loader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @Override
+    // Spawn every car whose time has come
+    public void update(SimulationModel model) {
+        long now = (model.getTick() - startTick) * Constants.FRAME_DELAY;
+        while (true) {
+            if (current == null) {
+                if (ready == null || !takeBatch()) {
+                    return;
+                }
+            }
+            if (index == current.count) {
+                // The batch is used up; hand it back to the reader
+                boolean last = current.last;
+                free.add(current);
+                current = null;
+                if (last) {
+                    System.out.println("Scenario " + file.getFileName() + " finished: " + spawned + " cars spawned");
+                    ready = null;
+                    return;
+                }
+                continue;
+            }
+            if (current.time[index] > now) {
+                return;
+            }
+            model.addCar(current.x[index], current.y[index], current.id[index], current.speed[index],
+                    DIRECTIONS[current.direction[index]]);
+            index++;
+            spawned++;
+        }
+    }
+
+    // Wait for the reader's next batch; it is normally already waiting
+    private boolean takeBatch() {
+        try {
+            current = ready.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        index = 0;
+        if (current.error != null) {
+            System.out.println("Scenario " + file.getFileName() + " stopped: " + current.error);
+        }
+        return true;
+    }
+
+    @Override
+    // Stop the reader; spawns that have not been reached are dropped
+    public void deactivate() {
+        if (reader != null) {
+            reader.interrupt();
+            reader = null;
+        }
+        ready = null;
+        current = null;
+    }
+
+    // Number of cars spawned since activation
+    public long getSpawned() {
+        return spawned;
+    }
+
+    // Reader thread: parse the file into free batches and queue them for the simulation
+    // Interrupting the thread stops it; the queues are passed in so a reader left over from an earlier
+    // activation can never feed the current one.
+    private void readFile(BlockingQueue<SpawnBatch> ready, BlockingQueue<SpawnBatch> free) {
+        SpawnBatch batch = null;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            SpawnParser parser = new SpawnParser(in);
+            while (!Thread.currentThread().isInterrupted()) {
+                batch = free.take();
+                batch.count = 0;
+                batch.error = null;
+                while (batch.count < BATCH_SIZE && parser.next(batch, batch.count)) {
+                    batch.count++;
+                }
+                batch.last = parser.isDone();
+                ready.put(batch);
+                if (batch.last) {
+                    return;
+                }
+                batch = null;
+            }
+        } catch (InterruptedException e) {
+            // Deactivated
+        } catch (IOException | IllegalArgumentException e) {
+            // Spawns parsed before the error are still delivered
+            if (batch == null) {
+                batch = free.poll();
+                if (batch != null) {
+                    batch.count = 0;
+                }
+            }
+            if (batch != null) {
+                batch.last = true;
+                batch.error = e.getMessage();
+                ready.offer(batch);
+            }
+        }
+    }
+
+    // Minimal byte-level parser for spawn lines, so reading millions of lines does not create a String per line
+    private static final class SpawnParser {
+        final private InputStream in;
+        private int peeked = -2;
+        private int line = 1;
+        private int nextId = 1;
+        private boolean done;
+
+        SpawnParser(InputStream in) {
+            this.in = in;
+        }
+
+        boolean isDone() {
+            return done;
+        }
+
+        // Parse the next spawn into a batch slot; returns false at the end of the file
+        boolean next(SpawnBatch batch, int slot) throws IOException {
+            while (true) {
+                skipSpaces();
+                int c = peek();
+                if (c == -1) {
+                    done = true;
+                    return false;
+                }
+                if (c == '\n' || c == '\r') {
+                    read();
+                    if (c == '\n') {
+                        line++;
+                    }
+                    continue;
+                }
+                if (c == '#') {
+                    while (peek() != '\n' && peek() != -1) {
+                        read();
+                    }
+                    continue;
+                }
+                break;
+            }
+            batch.time[slot] = readLong();
+            batch.x[slot] = (int) readLong();
+            batch.y[slot] = (int) readLong();
+            batch.speed[slot] = (int) readLong();
+            batch.direction[slot] = (byte) readDirection().ordinal();
+            skipSpaces();
+            int c = peek();
+            if (c != '\n' && c != '\r' && c != -1) {
+                batch.id[slot] = (int) readLong();
+                nextId = Math.max(nextId, batch.id[slot] + 1);
+            } else {
+                batch.id[slot] = nextId++;
+            }
+            skipSpaces();
+            c = peek();
+            if (c != '\n' && c != '\r' && c != -1) {
+                throw new IllegalArgumentException("Unexpected text on line " + line);
+            }
+            return true;
+        }
+
+        private long readLong() throws IOException {
+            skipSpaces();
+            boolean negative = peek() == '-';
+            if (negative) {
+                read();
+            }
+            int c = peek();
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Expected a number on line " + line);
+            }
+            long value = 0;
+            while (c >= '0' && c <= '9') {
+                value = value * 10 + (read() - '0');
+                c = peek();
+            }
+            return negative ? -value : value;
+        }
+
+        private Car.Direction readDirection() throws IOException {
+            skipSpaces();
+            switch (read()) {
+                case 'R':
+                    return expect("IGHT", Car.Direction.RIGHT);
+                case 'L':
+                    return expect("EFT", Car.Direction.LEFT);
+                case 'D':
+                    return expect("OWN", Car.Direction.DOWN);
+                case 'U':
+                    return expect("P", Car.Direction.UP);
+                default:
+                    throw new IllegalArgumentException("Expected a direction on line " + line);
+            }
+        }
+
+        private Car.Direction expect(String rest, Car.Direction direction) throws IOException {
+            for (int i = 0; i < rest.length(); i++) {
+                if (read() != rest.charAt(i)) {
+                    throw new IllegalArgumentException("Expected a direction on line " + line);
+                }
+            }
+            return direction;
+        }
+
+        private void skipSpaces() throws IOException {
+            while (peek() == ' ' || peek() == '\t' || peek() == ',') {
+                read();
+            }
+        }
+
+        private int peek() throws IOException {
+            if (peeked == -2) {
+                peeked = in.read();
+            }
+            return peeked;
+        }
+
+        private int read() throws IOException {
+            int c = peek();
+            peeked = -2;
+            return c;
+        }
+    }
+
+    // Write a synthetic rush hour to a scenario file: java StreamingScenario <file> [cars] [seconds]
+    // Cars enter on all four lanes at a rate that ramps up to a peak halfway through and back down.
+    public static void main(String[] args) throws IOException {
+        Path out = Path.of(args.length > 0 ? args[0] : "rush-hour.scenario");
+        long cars = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 600;
+        Random random = new Random(420);
+        int laneY = Constants.HORIZONTAL_ROAD_Y + Constants.LANE_OFFSET;
+        int laneX = Constants.VERTICAL_ROAD_X + Constants.LANE_OFFSET;
+        try (BufferedWriter writer = Files.newBufferedWriter(out)) {
+            writer.write("# time_ms x y speed direction");
+            writer.newLine();
+            for (long i = 0; i < cars; i++) {
+                // Inverse of a triangular distribution's CDF gives spawn times densest at the midpoint
+                double u = (double) i / cars;
+                double shape = u < 0.5 ? Math.sqrt(u / 2) : 1 - Math.sqrt((1 - u) / 2);
+                long time = (long) (shape * seconds * 1000);
+                int speed = 1 + random.nextInt(3);
+                String spawn = switch (random.nextInt(4)) {
+                    case 0 -> "0 " + laneY + " " + speed + " RIGHT";
+                    case 1 -> (Constants.WINDOW_WIDTH - Constants.CAR_SIZE) + " " + laneY + " " + speed + " LEFT";
+                    case 2 -> laneX + " 0 " + speed + " DOWN";
+                    default -> laneX + " " + (Constants.WINDOW_HEIGHT - Constants.CAR_SIZE) + " " + speed + " UP";
+                };
+                writer.write(time + " " + spawn);
+                writer.newLine();
+            }
+        }
+        System.out.println("Wrote " + cars + " spawns over " + seconds + " s to " + out);
+    }
+}
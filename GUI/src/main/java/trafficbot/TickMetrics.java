@@ -0,0 +1,182 @@
+package trafficbot;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/*
+ * Per-phase timings and counters for the simulation tick.
+ * The engine and the game panel record into it with System.nanoTime() deltas; everything on the recording
+ * side is a primitive write or an atomic increment, so it costs well under a microsecond per tick and
+ * never allocates. Readers (JMX, the on-screen overlay) compute percentiles when they ask.
+ */
+public class TickMetrics implements TickMetricsMXBean {
+    // Phases of a tick, in the order they run
+    // Work queued by other threads, tasks scheduled for the tick and the scenario's own update
+    public static final int TASKS = 0;
+    public static final int AUTOPILOT = 1;
+    public static final int MOVE = 2;
+    public static final int COLLISIONS = 3;
+    public static final int TRAFFIC_STATUS = 4;
+    public static final int PROXIMITY = 5;
+    public static final int LISTENERS = 6;
+    public static final int REPAINT = 7;
+    public static final int TICK = 8;
+    public static final int PHASES = 9;
+
+    public static final String OBJECT_NAME = "trafficbot:type=TickMetrics";
+
+    private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final LatencyHistogram[] phases = new LatencyHistogram[PHASES];
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong scans = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private volatile int carCount;
+    private volatile int pooledCars;
+    private volatile long spawnedCars;
+    private volatile long despawnedCars;
+    private volatile double scansPerSecond;
+    // Set by reset, which may run on a JMX thread; the simulation thread then restarts the rate window
+    private volatile boolean rateReset;
+
+    // Scan rate window, only touched by the simulation thread
+    private long windowStart;
+    private long windowScans;
+    // Start of the previous frame, only touched by whoever paces the frames
+    private long lastFrameStart;
+
+    // Constructor creates an empty histogram for each phase
+    public TickMetrics() {
+        for (int phase = 0; phase < PHASES; phase++) {
+            phases[phase] = new LatencyHistogram();
+        }
+    }
+
+    // Record how long a phase took
+    public void record(int phase, long nanos) {
+        phases[phase].record(nanos);
+    }
+
+    // Record the end of a tick: its duration, the cars alive and the cars newly scanned during it
+    public void endTick(long tickNanos, long now, int cars, int newScans) {
+        phases[TICK].record(tickNanos);
+        ticks.incrementAndGet();
+        carCount = cars;
+        scans.addAndGet(newScans);
+        if (rateReset) {
+            rateReset = false;
+            windowStart = 0;
+            windowScans = 0;
+        }
+        windowScans += newScans;
+        if (windowStart == 0) {
+            windowStart = now;
+        } else if (now - windowStart >= RATE_WINDOW_NANOS) {
+            scansPerSecond = windowScans * 1e9 / (now - windowStart);
+            windowStart = now;
+            windowScans = 0;
+        }
+    }
+
+    // Record the car lifecycle counts at the end of a tick: free car slots and cars spawned and despawned so far
+    public void recordCarLifecycle(int pooled, long spawned, long despawned) {
+        pooledCars = pooled;
+        spawnedCars = spawned;
+        despawnedCars = despawned;
+    }
+
+    // Count ticks the engine skipped because it fell too far behind
+    public void addDroppedFrames(long frames) {
+        droppedFrames.addAndGet(frames);
+    }
+
+    // Mark the start of a frame that should follow the previous one after expectedNanos
+    // Every whole interval beyond the expected one counts as a dropped frame.
+    public void markFrame(long now, long expectedNanos) {
+        if (lastFrameStart != 0) {
+            long late = now - lastFrameStart - expectedNanos;
+            if (late >= expectedNanos / 2) {
+                droppedFrames.addAndGet((late + expectedNanos / 2) / expectedNanos);
+            }
+        }
+        lastFrameStart = now;
+    }
+
+    public LatencyHistogram getHistogram(int phase) {
+        return phases[phase];
+    }
+
+    @Override public long getTicks() { return ticks.get(); }
+    @Override public int getCarCount() { return carCount; }
+    @Override public int getPooledCars() { return pooledCars; }
+    @Override public long getSpawnedCars() { return spawnedCars; }
+    @Override public long getDespawnedCars() { return despawnedCars; }
+    @Override public long getScans() { return scans.get(); }
+    @Override public double getScansPerSecond() { return scansPerSecond; }
+    // Average over all ticks recorded, so autopilots can be compared independently of how fast the engine ran
+    @Override public double getScansPerSimulatedMinute() {
+        long recorded = ticks.get();
+        return recorded == 0 ? 0 : scans.get() * 60_000.0 / (recorded * Constants.FRAME_DELAY);
+    }
+    @Override public long getDroppedFrames() { return droppedFrames.get(); }
+
+    @Override public PhaseStats getTickTime() { return new PhaseStats(phases[TICK]); }
+    @Override public PhaseStats getTasks() { return new PhaseStats(phases[TASKS]); }
+    @Override public PhaseStats getAutopilot() { return new PhaseStats(phases[AUTOPILOT]); }
+    @Override public PhaseStats getMove() { return new PhaseStats(phases[MOVE]); }
+    @Override public PhaseStats getCollisions() { return new PhaseStats(phases[COLLISIONS]); }
+    @Override public PhaseStats getTrafficStatus() { return new PhaseStats(phases[TRAFFIC_STATUS]); }
+    @Override public PhaseStats getProximity() { return new PhaseStats(phases[PROXIMITY]); }
+    @Override public PhaseStats getListeners() { return new PhaseStats(phases[LISTENERS]); }
+    @Override public PhaseStats getRepaint() { return new PhaseStats(phases[REPAINT]); }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : phases) {
+            histogram.reset();
+        }
+        ticks.set(0);
+        scans.set(0);
+        droppedFrames.set(0);
+        scansPerSecond = 0;
+        rateReset = true;
+    }
+
+    // Names of the phases, indexed like the phase constants
+    public static final String[] PHASE_NAMES = { "tasks", "autopilot", "move", "collisions", "traffic", "proximity", "listeners", "repaint", "tick" };
+
+    // Print one line per phase that has samples, with its percentiles in microseconds
+    public void printSummary() {
+        System.out.printf("%-10s %10s %9s %9s %9s %9s%n", "phase", "count", "p50 us", "p99 us", "p999 us", "max us");
+        for (int phase = 0; phase < PHASES; phase++) {
+            LatencyHistogram histogram = phases[phase];
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            System.out.printf("%-10s %10d %9.1f %9.1f %9.1f %9.1f%n", PHASE_NAMES[phase], histogram.getCount(),
+                    histogram.getPercentile(0.5) / 1e3, histogram.getPercentile(0.99) / 1e3,
+                    histogram.getPercentile(0.999) / 1e3, histogram.getMax() / 1e3);
+        }
+        System.out.printf("%d cars (%d pooled slots, %d spawned, %d despawned), %.1f scans/s, %.1f scans per simulated minute, %d dropped frames%n",
+                carCount, pooledCars, spawnedCars, despawnedCars, scansPerSecond, getScansPerSimulatedMinute(), droppedFrames.get());
+    }
+
+    // Publish on the platform MBean server, replacing metrics registered earlier in this JVM
+    public void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            System.out.println("Could not publish tick metrics over JMX: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package trafficbot;
+
+/*
+ * Management interface for TickMetrics, published over JMX as trafficbot:type=TickMetrics.
+ * Durations are reported in microseconds.
+ */
+public interface TickMetricsMXBean {
+    long getTicks();
+    int getCarCount();
+    // Free car slots kept for reuse, and cars spawned and despawned since the simulation started
+    int getPooledCars();
+    long getSpawnedCars();
+    long getDespawnedCars();
+    long getScans();
+    double getScansPerSecond();
+    double getScansPerSimulatedMinute();
+    long getDroppedFrames();
+
+    PhaseStats getTickTime();
+    PhaseStats getTasks();
+    PhaseStats getAutopilot();
+    PhaseStats getMove();
+    PhaseStats getCollisions();
+    PhaseStats getTrafficStatus();
+    PhaseStats getProximity();
+    PhaseStats getListeners();
+    PhaseStats getRepaint();
+
+    // Start all histograms and counters again from zero
+    void reset();
+
+    // Snapshot of one phase's latency histogram
+    final class PhaseStats {
+        final private long count;
+        final private double p50Micros;
+        final private double p99Micros;
+        final private double p999Micros;
+        final private double maxMicros;
+
+        public PhaseStats(LatencyHistogram histogram) {
+            this.count = histogram.getCount();
+            this.p50Micros = histogram.getPercentile(0.5) / 1e3;
+            this.p99Micros = histogram.getPercentile(0.99) / 1e3;
+            this.p999Micros = histogram.getPercentile(0.999) / 1e3;
+            this.maxMicros = histogram.getMax() / 1e3;
+        }
+
+        public long getCount() { return count; }
+        public double getP50Micros() { return p50Micros; }
+        public double getP99Micros() { return p99Micros; }
+        public double getP999Micros() { return p999Micros; }
+        public double getMaxMicros() { return maxMicros; }
+    }
+}
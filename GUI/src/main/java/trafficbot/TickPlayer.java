@@ -0,0 +1,381 @@
+package trafficbot;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/*
+ * Plays back a recording made by TickRecorder without running the model.
+ * The file is memory-mapped and indexed by keyframe on open, so seeking to a tick decodes at most one
+ * keyframe interval of frames. Decoded state can be copied into a display-only SimulationModel and
+ * shown in a GamePanel, or read directly for headless analysis.
+ */
+public class TickPlayer implements AutoCloseable {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int keyframeInterval;
+    private final int dataStart;
+
+    // Keyframe index: tick and file offset of each keyframe, in order
+    private long[] keyTicks = new long[16];
+    private int[] keyOffsets = new int[16];
+    private int keyCount;
+    private long frameCount;
+
+    private int position;
+    // End of the last complete frame
+    private int limit;
+
+    // Decoded state of the current frame
+    private long tick = -1;
+    private int[] ids = new int[0];
+    private int[] x = new int[0];
+    private int[] y = new int[0];
+    private byte[] flags = new byte[0];
+    private int count;
+    private int[] droneX = new int[0];
+    private int[] droneY = new int[0];
+    private int droneCount;
+    private int[] scanCars = new int[0];
+    private int[] scanDrones = new int[0];
+    private int scanCount;
+
+    // Constructor maps the recording and builds the keyframe index
+    public TickPlayer(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        if (channel.size() > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Recordings over 2 GB are not supported: " + file);
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (buffer.capacity() < 12 || buffer.getInt(0) != TickRecorder.MAGIC) {
+            channel.close();
+            throw new IOException("Not a tick recording: " + file);
+        }
+        if (buffer.getInt(4) != TickRecorder.VERSION) {
+            channel.close();
+            throw new IOException("Unsupported recording version " + buffer.getInt(4) + ": " + file);
+        }
+        keyframeInterval = buffer.getInt(8);
+        dataStart = 12;
+        buildIndex();
+        position = dataStart;
+    }
+
+    // Walk the frame lengths once, remembering where each keyframe starts
+    // A frame cut short by a crash, even inside its length, ends the recording.
+    private void buildIndex() {
+        position = dataStart;
+        while (position < buffer.limit()) {
+            int frameStart = position;
+            int frameLength = readFrameLength();
+            if (frameLength <= 0 || frameLength > buffer.limit() - position) {
+                position = frameStart;
+                break;
+            }
+            if (buffer.get(position) == TickRecorder.FRAME_KEY) {
+                if (keyCount == keyTicks.length) {
+                    keyTicks = Arrays.copyOf(keyTicks, keyCount * 2);
+                    keyOffsets = Arrays.copyOf(keyOffsets, keyCount * 2);
+                }
+                position++;
+                keyTicks[keyCount] = readVarLong();
+                keyOffsets[keyCount] = frameStart;
+                keyCount++;
+            }
+            position = frameStart + varIntSize(frameLength) + frameLength;
+            frameCount++;
+        }
+        limit = position;
+    }
+
+    // Decode the next frame; returns false at the end of the recording
+    public boolean next() {
+        if (position >= limit) {
+            return false;
+        }
+        int frameLength = readVarInt();
+        int frameEnd = position + frameLength;
+        boolean key = buffer.get(position++) == TickRecorder.FRAME_KEY;
+        tick = readVarLong();
+
+        int previousDrones = droneCount;
+        droneCount = readVarInt();
+        if (droneX.length < droneCount) {
+            droneX = Arrays.copyOf(droneX, droneCount);
+            droneY = Arrays.copyOf(droneY, droneCount);
+        }
+        for (int i = 0; i < droneCount; i++) {
+            // A delta frame only adds to drones the previous frame had; new ones start from zero
+            boolean known = !key && i < previousDrones;
+            droneX[i] = readSigned() + (known ? droneX[i] : 0);
+            droneY[i] = readSigned() + (known ? droneY[i] : 0);
+        }
+
+        int newCount = readVarInt();
+        if (ids.length < newCount) {
+            int capacity = Math.max(newCount, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+        if (key) {
+            for (int slot = 0; slot < newCount; slot++) {
+                ids[slot] = readVarInt();
+                x[slot] = readSigned();
+                y[slot] = readSigned();
+                flags[slot] = buffer.get(position++);
+            }
+        } else {
+            // Slots past the previous count were diffed against an all-zero car
+            for (int slot = count; slot < newCount; slot++) {
+                ids[slot] = 0;
+                x[slot] = 0;
+                y[slot] = 0;
+                flags[slot] = 0;
+            }
+            int slot = -1;
+            long entry;
+            while ((entry = readVarLong()) != 0) {
+                slot += (int) (entry >>> 3) + 1;
+                int changes = (int) entry & 7;
+                if ((changes & TickRecorder.CHANGED_ID) != 0) {
+                    ids[slot] = readVarInt();
+                }
+                if ((changes & TickRecorder.CHANGED_POSITION) != 0) {
+                    x[slot] += readSigned();
+                    y[slot] += readSigned();
+                }
+                if ((changes & TickRecorder.CHANGED_FLAGS) != 0) {
+                    flags[slot] = buffer.get(position++);
+                }
+            }
+        }
+        count = newCount;
+
+        scanCount = readVarInt();
+        if (scanCars.length < scanCount) {
+            scanCars = Arrays.copyOf(scanCars, scanCount);
+            scanDrones = Arrays.copyOf(scanDrones, scanCount);
+        }
+        for (int i = 0; i < scanCount; i++) {
+            scanCars[i] = readVarInt();
+            scanDrones[i] = readVarInt();
+        }
+        position = frameEnd;
+        return true;
+    }
+
+    // Move to the last frame at or before a tick, decoding from the nearest keyframe before it
+    // Returns false if the recording has no frame that early.
+    public boolean seek(long target) {
+        int low = 0;
+        int high = keyCount - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (keyTicks[middle] <= target) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (found < 0) {
+            return false;
+        }
+        position = keyOffsets[found];
+        next();
+        while (position < limit && peekTick() <= target) {
+            next();
+        }
+        return true;
+    }
+
+    // Tick of the frame that next() would decode
+    private long peekTick() {
+        int saved = position;
+        readVarInt();
+        position++;
+        long peeked = readVarLong();
+        position = saved;
+        return peeked;
+    }
+
+    // Copy the current frame into a model used only for display
+    // Speeds and directions are not recorded, so the cars are not meant to be moved by the model.
+    public void applyTo(SimulationModel model) {
+        CarStore cars = model.getCarStore();
+        boolean rebuild = cars.size() > count;
+        for (int slot = 0; slot < Math.min(count, cars.size()) && !rebuild; slot++) {
+            rebuild = cars.getId(slot) != ids[slot];
+        }
+        if (rebuild) {
+            model.clearCars();
+        }
+        for (int slot = cars.size(); slot < count; slot++) {
+            model.addCar(x[slot], y[slot], ids[slot], 0, Car.Direction.RIGHT);
+        }
+        for (int slot = 0; slot < count; slot++) {
+            model.setCarState(slot, x[slot], y[slot],
+                    (flags[slot] & TickRecorder.FLAG_IN_TRAFFIC) != 0, (flags[slot] & TickRecorder.FLAG_CRASHED) != 0);
+        }
+        if (model.getDrones().size() != droneCount) {
+            model.setFleetSize(droneCount);
+        }
+        List<Drone> drones = model.getDrones();
+        for (int i = 0; i < Math.min(droneCount, drones.size()); i++) {
+            drones.get(i).setPosition(droneX[i], droneY[i]);
+        }
+    }
+
+    // Getters for the current frame
+    public long getTick() { return tick; }
+    public int getCarCount() { return count; }
+    public int getCarId(int slot) { return ids[slot]; }
+    public int getCarX(int slot) { return x[slot]; }
+    public int getCarY(int slot) { return y[slot]; }
+    public boolean isInTraffic(int slot) { return (flags[slot] & TickRecorder.FLAG_IN_TRAFFIC) != 0; }
+    public boolean isCrashed(int slot) { return (flags[slot] & TickRecorder.FLAG_CRASHED) != 0; }
+    public int getDroneCount() { return droneCount; }
+    public int getDroneX(int index) { return droneX[index]; }
+    public int getDroneY(int index) { return droneY[index]; }
+    public int getScanCount() { return scanCount; }
+    public int getScanCarId(int index) { return scanCars[index]; }
+    public int getScanDroneId(int index) { return scanDrones[index]; }
+
+    // Facts about the whole recording
+    public long getFrameCount() { return frameCount; }
+    public int getKeyframeInterval() { return keyframeInterval; }
+    public long getFirstTick() { return keyCount > 0 ? keyTicks[0] : -1; }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int readVarInt() {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(position++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    // Like readVarInt, but returns -1 instead of reading past the end of the file or a five-byte varint
+    private int readFrameLength() {
+        int value = 0;
+        for (int shift = 0; shift < 35 && position < buffer.limit(); shift += 7) {
+            byte b = buffer.get(position++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(position++);
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private int readSigned() {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    // Replay a recording: java TickPlayer <file> [speed] [start tick] [--headless]
+    // Speed is in recorded ticks per displayed frame, e.g. 0.5 for slow motion or 20 to skim.
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: TickPlayer <file> [speed] [start tick] [--headless]");
+            return;
+        }
+        boolean headless = Arrays.asList(args).contains("--headless");
+        double speed = args.length > 1 && !args[1].startsWith("--") ? Double.parseDouble(args[1]) : 1;
+        long startTick = args.length > 2 && !args[2].startsWith("--") ? Long.parseLong(args[2]) : -1;
+        TickPlayer player = new TickPlayer(Path.of(args[0]));
+        if (startTick >= 0 && !player.seek(startTick)) {
+            System.out.println("Recording starts after tick " + startTick);
+        }
+
+        if (headless) {
+            long start = System.nanoTime();
+            long frames = 0;
+            long scans = 0;
+            while (player.next()) {
+                frames++;
+                scans += player.getScanCount();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Replayed %d frames in %.3f s (%.0f frames/s): last tick %d, %d cars, %d scans%n",
+                    frames, seconds, frames / seconds, player.getTick(), player.getCarCount(), scans);
+            player.close();
+            return;
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            SimulationModel model = new SimulationModel();
+            GamePanel panel = new GamePanel(model);
+            JFrame window = new JFrame("Traffic Bot Replay - " + args[0]);
+            window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            window.setSize(Constants.WINDOW_WIDTH, Constants.WINDOW_HEIGHT);
+            window.setLocationRelativeTo(null);
+            window.add(panel);
+            window.setVisible(true);
+
+            // Speed accumulates across frames so fractional speeds hold some frames longer
+            double[] owed = { 0 };
+            Timer timer = new Timer(Constants.FRAME_DELAY, null);
+            timer.addActionListener(e -> {
+                owed[0] += speed;
+                boolean advanced = false;
+                while (owed[0] >= 1) {
+                    owed[0]--;
+                    if (!player.next()) {
+                        timer.stop();
+                        System.out.println("Replay finished at tick " + player.getTick());
+                        break;
+                    }
+                    advanced = true;
+                }
+                if (advanced) {
+                    player.applyTo(model);
+                    panel.publishFrame();
+                    panel.refreshFrame();
+                }
+            });
+            timer.start();
+        });
+    }
+}
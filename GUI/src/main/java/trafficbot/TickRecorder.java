@@ -0,0 +1,259 @@
+package trafficbot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Records the simulation tick by tick into a compact binary stream that TickPlayer can replay.
+ * Every frame holds the car positions and flags, the drone positions and the tick's new scans.
+ * Most frames are deltas against the previous one; every keyframeInterval frames a full keyframe is
+ * written so the player can seek without decoding the recording from the start.
+ *
+ * File layout (big endian header, then frames):
+ *   magic "TBRC", version, keyframe interval
+ *   frame: varint length, type byte, varlong tick, drones, cars, scans
+ * Numbers inside frames are varints; signed values and deltas are zigzag encoded.
+ *   keyframe cars: count, then per slot id, x, y, flags
+ *   delta cars:    count, then per changed slot varint (skip << 3 | changes) ... terminated by 0,
+ *                  where skip is the number of unchanged slots before it and the change bits say
+ *                  which of id, position (dx, dy) and flags follow
+ */
+public class TickRecorder implements SimulationListener, AutoCloseable {
+    static final int MAGIC = 0x54425243; // "TBRC"
+    static final int VERSION = 1;
+    static final int FRAME_KEY = 1;
+    static final int FRAME_DELTA = 2;
+
+    static final int FLAG_IN_TRAFFIC = 1;
+    static final int FLAG_CRASHED = 2;
+
+    static final int CHANGED_ID = 1;
+    static final int CHANGED_POSITION = 2;
+    static final int CHANGED_FLAGS = 4;
+
+    // About 5 seconds of simulated time between keyframes
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 300;
+
+    private final DataOutputStream out;
+    private final int keyframeInterval;
+    private long frames;
+
+    // The frame being encoded, reused between ticks
+    private byte[] frame = new byte[1024];
+    private int length;
+
+    // State as of the last written frame, by slot
+    private int[] lastIds = new int[0];
+    private int[] lastX = new int[0];
+    private int[] lastY = new int[0];
+    private byte[] lastFlags = new byte[0];
+    private int lastCount;
+    private int[] lastDroneX = new int[0];
+    private int[] lastDroneY = new int[0];
+    private int lastDroneCount;
+
+    // Constructor opens the recording file with the default keyframe interval
+    public TickRecorder(Path file) throws IOException {
+        this(file, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    public TickRecorder(Path file, int keyframeInterval) throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be at least 1: " + keyframeInterval);
+        }
+        this.keyframeInterval = keyframeInterval;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(keyframeInterval);
+    }
+
+    @Override
+    // Record the state at the end of a tick
+    public void onTick(SimulationModel model, long tick) {
+        try {
+            writeFrame(model, tick);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write tick " + tick + " to recording", e);
+        }
+    }
+
+    // Number of frames recorded so far
+    public long getFrameCount() {
+        return frames;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeFrame(SimulationModel model, long tick) throws IOException {
+        boolean key = frames % keyframeInterval == 0;
+        length = 0;
+        putByte(key ? FRAME_KEY : FRAME_DELTA);
+        putVarLong(tick);
+
+        List<Drone> drones = model.getDrones();
+        if (lastDroneX.length < drones.size()) {
+            lastDroneX = Arrays.copyOf(lastDroneX, drones.size());
+            lastDroneY = Arrays.copyOf(lastDroneY, drones.size());
+        }
+        putVarInt(drones.size());
+        for (int i = 0; i < drones.size(); i++) {
+            Drone drone = drones.get(i);
+            boolean known = !key && i < lastDroneCount;
+            putSigned(drone.getX() - (known ? lastDroneX[i] : 0));
+            putSigned(drone.getY() - (known ? lastDroneY[i] : 0));
+            lastDroneX[i] = drone.getX();
+            lastDroneY[i] = drone.getY();
+        }
+        lastDroneCount = drones.size();
+
+        CarStore cars = model.getCarStore();
+        int count = cars.size();
+        if (lastIds.length < count) {
+            int capacity = Math.max(count, lastIds.length * 2);
+            lastIds = Arrays.copyOf(lastIds, capacity);
+            lastX = Arrays.copyOf(lastX, capacity);
+            lastY = Arrays.copyOf(lastY, capacity);
+            lastFlags = Arrays.copyOf(lastFlags, capacity);
+        }
+        putVarInt(count);
+        if (key) {
+            for (int slot = 0; slot < count; slot++) {
+                int flags = flagsOf(cars, slot);
+                putVarInt(cars.getId(slot));
+                putSigned(cars.getX(slot));
+                putSigned(cars.getY(slot));
+                putByte(flags);
+                remember(cars, slot, flags);
+            }
+        } else {
+            int skipped = 0;
+            for (int slot = 0; slot < count; slot++) {
+                int flags = flagsOf(cars, slot);
+                // Slots that are new since the last frame are diffed against an all-zero car
+                boolean known = slot < lastCount;
+                int id = cars.getId(slot);
+                int dx = cars.getX(slot) - (known ? lastX[slot] : 0);
+                int dy = cars.getY(slot) - (known ? lastY[slot] : 0);
+                int changes = 0;
+                if (id != (known ? lastIds[slot] : 0)) {
+                    changes |= CHANGED_ID;
+                }
+                if (dx != 0 || dy != 0) {
+                    changes |= CHANGED_POSITION;
+                }
+                if (flags != (known ? lastFlags[slot] : 0)) {
+                    changes |= CHANGED_FLAGS;
+                }
+                if (changes == 0) {
+                    if (!known) {
+                        remember(cars, slot, flags);
+                    }
+                    skipped++;
+                    continue;
+                }
+                putVarLong(((long) skipped << 3) | changes);
+                if ((changes & CHANGED_ID) != 0) {
+                    putVarInt(id);
+                }
+                if ((changes & CHANGED_POSITION) != 0) {
+                    putSigned(dx);
+                    putSigned(dy);
+                }
+                if ((changes & CHANGED_FLAGS) != 0) {
+                    putByte(flags);
+                }
+                remember(cars, slot, flags);
+                skipped = 0;
+            }
+            putByte(0);
+        }
+        lastCount = count;
+
+        int scans = model.getScanCount();
+        putVarInt(scans);
+        for (int i = 0; i < scans; i++) {
+            putVarInt(model.getScanCarId(i));
+            putVarInt(model.getScanDroneId(i));
+        }
+
+        writeVarInt(length);
+        out.write(frame, 0, length);
+        frames++;
+    }
+
+    private void remember(CarStore cars, int slot, int flags) {
+        lastIds[slot] = cars.getId(slot);
+        lastX[slot] = cars.getX(slot);
+        lastY[slot] = cars.getY(slot);
+        lastFlags[slot] = (byte) flags;
+    }
+
+    static int flagsOf(CarStore cars, int slot) {
+        return (cars.isInTraffic(slot) ? FLAG_IN_TRAFFIC : 0) | (cars.isCrashed(slot) ? FLAG_CRASHED : 0);
+    }
+
+    private void putByte(int value) {
+        if (length == frame.length) {
+            frame = Arrays.copyOf(frame, frame.length * 2);
+        }
+        frame[length++] = (byte) value;
+    }
+
+    // Zigzag encoding keeps small negative numbers short
+    private void putSigned(int value) {
+        putVarInt((value << 1) ^ (value >> 31));
+    }
+
+    // Unsigned LEB128: seven bits per byte, high bit set on all but the last
+    private void putVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            putByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        putByte(value);
+    }
+
+    private void putVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            putByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        putByte((int) value);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    // Start recording into the file named by the trafficbot.record system property, if it is set
+    // Returns the recorder so the caller can close it, or null.
+    public static TickRecorder attachConfigured(SimulationEngine engine) {
+        String file = System.getProperty("trafficbot.record");
+        if (file == null || file.isEmpty()) {
+            return null;
+        }
+        try {
+            TickRecorder recorder = new TickRecorder(Path.of(file));
+            engine.addListener(recorder);
+            System.out.println("Recording ticks to " + file);
+            return recorder;
+        } catch (IOException e) {
+            System.out.println("Could not open recording " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package trafficbot;
+
+/*
+ * Scheduler for callbacks in simulated time, driven by the engine's ticks.
+ * Tasks run on the simulation thread at the start of the tick they are due, so they stay in step with the
+ * simulation however fast or slow it runs.
+ *
+ * Pending tasks sit in a hierarchical timing wheel: LEVELS wheels of SLOTS slots, each level counting
+ * SLOTS times coarser than the one below. A task goes into the highest level where its due tick differs
+ * from the current tick, and is moved down a level each time the current tick reaches its slot, so
+ * scheduling and cancelling are O(1) and each tick only touches the tasks that are due.
+ * Tasks further ahead than the wheels reach wait in an overflow list until the top wheel wraps.
+ */
+public class TickScheduler {
+    private static final int WHEEL_BITS = 6;
+    private static final int SLOTS = 1 << WHEEL_BITS;
+    private static final int MASK = SLOTS - 1;
+    // Four levels reach 2^24 ticks, about three days of simulated time
+    private static final int LEVELS = 4;
+    private static final int OVERFLOW = LEVELS * SLOTS;
+
+    // A scheduled callback; also the handle used to cancel it
+    public static final class Task {
+        final private Runnable action;
+        final private long period;
+        private long dueTick;
+        private int bucket = -1;
+        private boolean cancelled;
+        private Task previous;
+        private Task next;
+
+        private Task(Runnable action, long dueTick, long period) {
+            this.action = action;
+            this.dueTick = dueTick;
+            this.period = period;
+        }
+
+        public long getDueTick() {
+            return dueTick;
+        }
+
+        // Whether the task will still run (periodic tasks stay scheduled until cancelled)
+        public boolean isScheduled() {
+            return bucket >= 0;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    // Bucket heads: LEVELS wheels of SLOTS doubly linked lists, then the overflow list
+    private final Task[] buckets = new Task[OVERFLOW + 1];
+    private long now;
+    private int size;
+
+    // Constructor for a scheduler whose clock starts at the given tick
+    public TickScheduler(long startTick) {
+        this.now = startTick;
+    }
+
+    // Last tick whose tasks have run
+    public long getTick() {
+        return now;
+    }
+
+    // Number of pending tasks
+    public int size() {
+        return size;
+    }
+
+    // Run an action once after a delay in simulated milliseconds
+    public Task schedule(long delayMillis, Runnable action) {
+        return scheduleAtTick(now + toTicks(delayMillis), action);
+    }
+
+    // Run an action every period simulated milliseconds, the first time one period from now
+    public Task scheduleRepeating(long periodMillis, Runnable action) {
+        long period = toTicks(periodMillis);
+        Task task = new Task(action, now + period, period);
+        insert(task);
+        return task;
+    }
+
+    // Run an action once at the start of the given tick; a tick already run means the next one
+    public Task scheduleAtTick(long tick, Runnable action) {
+        Task task = new Task(action, Math.max(tick, now + 1), 0);
+        insert(task);
+        return task;
+    }
+
+    // Cancel a task, also from inside its own callback; cancelling a task that already ran does nothing
+    public void cancel(Task task) {
+        if (task == null) {
+            return;
+        }
+        task.cancelled = true;
+        if (task.bucket >= 0) {
+            unlink(task);
+        }
+    }
+
+    // Drop every pending task
+    public void cancelAll() {
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            while (buckets[bucket] != null) {
+                cancel(buckets[bucket]);
+            }
+        }
+    }
+
+    // Advance the clock to a tick, running everything due on the way in due-tick order
+    public void advanceTo(long tick) {
+        while (now < tick) {
+            now++;
+            if ((now & MASK) == 0) {
+                cascade();
+            }
+            int slot = (int) (now & MASK);
+            Task task;
+            // Tasks scheduled by a callback for this tick land in the next one, so this loop ends
+            while ((task = buckets[slot]) != null) {
+                unlink(task);
+                task.action.run();
+                if (task.period > 0 && !task.cancelled && task.bucket < 0) {
+                    task.dueTick += task.period;
+                    insert(task);
+                }
+            }
+        }
+    }
+
+    // Simulated milliseconds to whole ticks, rounding up so nothing fires early
+    private static long toTicks(long millis) {
+        return Math.max(1, (millis + Constants.FRAME_DELAY - 1) / Constants.FRAME_DELAY);
+    }
+
+    // The lower wheels wrapped: move the tasks of the slots the higher wheels just reached down a level
+    private void cascade() {
+        int level = 1;
+        while (level < LEVELS && ((now >>> (WHEEL_BITS * level)) & MASK) == 0) {
+            level++;
+        }
+        if (level == LEVELS) {
+            level = LEVELS - 1;
+            rehash(OVERFLOW);
+        }
+        // Highest level first, so nothing is moved into a slot that has already been emptied
+        for (; level >= 1; level--) {
+            rehash(level * SLOTS + (int) ((now >>> (WHEEL_BITS * level)) & MASK));
+        }
+    }
+
+    private void rehash(int bucket) {
+        Task task = buckets[bucket];
+        buckets[bucket] = null;
+        while (task != null) {
+            Task next = task.next;
+            task.bucket = -1;
+            size--;
+            insert(task);
+            task = next;
+        }
+    }
+
+    // A task due now goes into the current level-0 slot; only cascading may do that, as it runs right after
+    private void insert(Task task) {
+        long differing = task.dueTick ^ now;
+        int bucket;
+        if (differing >>> (WHEEL_BITS * LEVELS) != 0) {
+            bucket = OVERFLOW;
+        } else {
+            int level = 0;
+            while (differing >>> (WHEEL_BITS * (level + 1)) != 0) {
+                level++;
+            }
+            bucket = level * SLOTS + (int) ((task.dueTick >>> (WHEEL_BITS * level)) & MASK);
+        }
+        task.bucket = bucket;
+        task.previous = null;
+        task.next = buckets[bucket];
+        if (task.next != null) {
+            task.next.previous = task;
+        }
+        buckets[bucket] = task;
+        size++;
+    }
+
+    private void unlink(Task task) {
+        if (task.previous != null) {
+            task.previous.next = task.next;
+        } else {
+            buckets[task.bucket] = task.next;
+        }
+        if (task.next != null) {
+            task.next.previous = task.previous;
+        }
+        task.previous = null;
+        task.next = null;
+        task.bucket = -1;
+        size--;
+    }
+}
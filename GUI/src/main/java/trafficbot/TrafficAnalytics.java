@@ -0,0 +1,248 @@
+package trafficbot;
+
+import java.util.Arrays;
+
+/*
+ * Sliding-window traffic statistics per road segment, updated once per tick.
+ * Each tick one pass over the cars finds the segment every car is on and counts cars, their speeds and
+ * the cars that entered a segment since the last tick. Those per-tick totals go into a ring of the last
+ * windowTicks ticks with running sums, so advancing the window is O(1) per segment and every statistic
+ * (and the congestion level derived from them) can be read at any time in O(1).
+ *
+ * Segments: the horizontal roads and the vertical roads outside the intersections, and the intersection
+ * boxes, each taken together over the whole map; on the original map that is one road of each and its
+ * single crossing. Cars off the roads are not counted.
+ */
+public class TrafficAnalytics {
+    public static final int HORIZONTAL_ROAD = 0;
+    public static final int VERTICAL_ROAD = 1;
+    public static final int INTERSECTION = 2;
+    public static final int SEGMENTS = 3;
+    public static final String[] SEGMENT_NAMES = { "horizontal road", "vertical road", "intersection" };
+
+    private static final byte OFF_ROAD = -1;
+
+    // Default window of about 3 seconds of simulated time
+    public static final int DEFAULT_WINDOW_TICKS = 3000 / Constants.FRAME_DELAY;
+
+    // Below this mean speed (pixels per tick) a segment with cars on it is at a standstill
+    private static final double STOPPED_SPEED = 0.5;
+    // Occupancy a segment must fall below a threshold by before its level drops
+    private static final double HYSTERESIS = 0.15;
+
+    // Congestion of a segment, from its occupancy over the window
+    public enum CongestionLevel {
+        FREE, LIGHT, MODERATE, HEAVY
+    }
+
+    private final int windowTicks;
+    // Map the segments lie on, with the lane length of each segment in pixels, for densities, and the cars
+    // it holds when they are TRAFFIC_DISTANCE apart, i.e. at the point they count as in traffic
+    private CityMap map;
+    private final double[] length = new double[SEGMENTS];
+    private final double[] capacity = new double[SEGMENTS];
+    // Per-tick totals for the window, indexed [tick % windowTicks][segment]
+    private final int[][] carsByTick;
+    private final long[][] speedByTick;
+    private final int[][] entriesByTick;
+    // Running sums over the window
+    private final long[] carSums = new long[SEGMENTS];
+    private final long[] speedSums = new long[SEGMENTS];
+    private final long[] entrySums = new long[SEGMENTS];
+    private long ticks;
+
+    // Totals for the tick being counted
+    private final int[] tickCars = new int[SEGMENTS];
+    private final long[] tickSpeed = new long[SEGMENTS];
+    private final int[] tickEntries = new int[SEGMENTS];
+
+    // Segment and ID each slot had last tick, to spot cars entering a segment
+    private byte[] lastSegment = new byte[0];
+    private int[] lastId = new int[0];
+    private int lastCount;
+
+    // Constructor with the default window, on the original intersection
+    public TrafficAnalytics() {
+        this(DEFAULT_WINDOW_TICKS);
+    }
+
+    public TrafficAnalytics(int windowTicks) {
+        this(windowTicks, CityMap.INTERSECTION);
+    }
+
+    public TrafficAnalytics(int windowTicks, CityMap map) {
+        if (windowTicks < 1) {
+            throw new IllegalArgumentException("Window must be at least one tick: " + windowTicks);
+        }
+        this.windowTicks = windowTicks;
+        this.carsByTick = new int[windowTicks][SEGMENTS];
+        this.speedByTick = new long[windowTicks][SEGMENTS];
+        this.entriesByTick = new int[windowTicks][SEGMENTS];
+        setMap(map);
+    }
+
+    // Count traffic on another map from now on; the window starts over
+    public void setMap(CityMap newMap) {
+        map = newMap;
+        int horizontal = map.getHorizontalRoadCount();
+        int vertical = map.getVerticalRoadCount();
+        length[HORIZONTAL_ROAD] = horizontal * (double) (map.getWidth() - vertical * Constants.ROAD_WIDTH);
+        length[VERTICAL_ROAD] = vertical * (double) (map.getHeight() - horizontal * Constants.ROAD_WIDTH);
+        length[INTERSECTION] = horizontal * vertical * 2.0 * Constants.ROAD_WIDTH;
+        for (int segment = 0; segment < SEGMENTS; segment++) {
+            capacity[segment] = length[segment] / Constants.TRAFFIC_DISTANCE;
+        }
+        reset();
+    }
+
+    // Count one tick of traffic and slide the window forward
+    public void update(CarStore cars) {
+        int count = cars.size();
+        if (lastSegment.length < count) {
+            int capacity = Math.max(count, lastSegment.length * 2);
+            lastSegment = Arrays.copyOf(lastSegment, capacity);
+            lastId = Arrays.copyOf(lastId, capacity);
+        }
+        Arrays.fill(tickCars, 0);
+        Arrays.fill(tickSpeed, 0);
+        Arrays.fill(tickEntries, 0);
+        for (int slot = 0; slot < count; slot++) {
+            int segment = segmentOf(cars.getX(slot) + Constants.CAR_SIZE / 2, cars.getY(slot) + Constants.CAR_SIZE / 2);
+            // A slot that held another car last tick (spawned or swapped in by a removal) counts as arriving
+            boolean sameCar = slot < lastCount && lastId[slot] == cars.getId(slot);
+            if (segment != OFF_ROAD) {
+                tickCars[segment]++;
+                tickSpeed[segment] += cars.isCrashed(slot) ? 0 : cars.getSpeed(slot);
+                if (!sameCar || lastSegment[slot] != segment) {
+                    tickEntries[segment]++;
+                }
+            }
+            lastSegment[slot] = (byte) segment;
+            lastId[slot] = cars.getId(slot);
+        }
+        lastCount = count;
+
+        int index = (int) (ticks % windowTicks);
+        for (int segment = 0; segment < SEGMENTS; segment++) {
+            carSums[segment] += tickCars[segment] - carsByTick[index][segment];
+            speedSums[segment] += tickSpeed[segment] - speedByTick[index][segment];
+            entrySums[segment] += tickEntries[segment] - entriesByTick[index][segment];
+            carsByTick[index][segment] = tickCars[segment];
+            speedByTick[index][segment] = tickSpeed[segment];
+            entriesByTick[index][segment] = tickEntries[segment];
+        }
+        ticks++;
+    }
+
+    // Forget all history, e.g. when a scenario starts over
+    public void reset() {
+        for (int i = 0; i < windowTicks; i++) {
+            Arrays.fill(carsByTick[i], 0);
+            Arrays.fill(speedByTick[i], 0);
+            Arrays.fill(entriesByTick[i], 0);
+        }
+        Arrays.fill(carSums, 0);
+        Arrays.fill(speedSums, 0);
+        Arrays.fill(entrySums, 0);
+        ticks = 0;
+        lastCount = 0;
+    }
+
+    // Which segment a point is on, or OFF_ROAD
+    int segmentOf(int px, int py) {
+        boolean onHorizontal = map.isOnHorizontalRoad(py);
+        boolean onVertical = map.isOnVerticalRoad(px);
+        if (onHorizontal && onVertical) {
+            return INTERSECTION;
+        }
+        if (onHorizontal) {
+            return HORIZONTAL_ROAD;
+        }
+        return onVertical ? VERTICAL_ROAD : OFF_ROAD;
+    }
+
+    // Ticks in the window so far (the window is not full for the first windowTicks ticks)
+    private long filledTicks() {
+        return Math.max(1, Math.min(ticks, windowTicks));
+    }
+
+    // Mean number of cars on a segment over the window
+    public double getMeanCars(int segment) {
+        return (double) carSums[segment] / filledTicks();
+    }
+
+    // Cars per 100 pixels of lane, averaged over the window
+    public double getDensity(int segment) {
+        return getMeanCars(segment) * 100 / length[segment];
+    }
+
+    // Cars entering a segment per simulated second, over the window
+    public double getFlow(int segment) {
+        return entrySums[segment] * 1000.0 / (filledTicks() * Constants.FRAME_DELAY);
+    }
+
+    // Mean speed of the cars on a segment in pixels per simulated second, or 0 if it was empty
+    public double getMeanSpeed(int segment) {
+        return carSums[segment] == 0 ? 0 : (double) speedSums[segment] / carSums[segment] * 1000 / Constants.FRAME_DELAY;
+    }
+
+    // Mean cars as a share of the cars the segment holds at traffic spacing
+    public double getOccupancy(int segment) {
+        return getMeanCars(segment) / capacity[segment];
+    }
+
+    // Current congestion of a segment; cheap enough to call every frame
+    // Stopped cars (e.g. a wreck) make a segment heavy however few there are.
+    public CongestionLevel getCongestion(int segment) {
+        return levelOf(segment, 0);
+    }
+
+    // Congestion with hysteresis against the level last reported, so a segment hovering at a threshold
+    // does not flip back and forth: it only drops a level once occupancy is HYSTERESIS below the threshold
+    public CongestionLevel getCongestion(int segment, CongestionLevel previous) {
+        CongestionLevel level = levelOf(segment, 0);
+        if (level.compareTo(previous) < 0) {
+            CongestionLevel lowered = levelOf(segment, HYSTERESIS);
+            return lowered.compareTo(previous) < 0 ? lowered : previous;
+        }
+        return level;
+    }
+
+    // Congestion of the whole map, which is as congested as its worst segment
+    // Each segment goes through getCongestion with hysteresis against its level in previous, which is
+    // updated in place; start from newSegmentLevels.
+    public CongestionLevel getWorstCongestion(CongestionLevel[] previous) {
+        CongestionLevel worst = CongestionLevel.FREE;
+        for (int segment = 0; segment < SEGMENTS; segment++) {
+            previous[segment] = getCongestion(segment, previous[segment]);
+            if (previous[segment].compareTo(worst) > 0) {
+                worst = previous[segment];
+            }
+        }
+        return worst;
+    }
+
+    // A level per segment, all FREE, for callers tracking levels with hysteresis
+    public static CongestionLevel[] newSegmentLevels() {
+        CongestionLevel[] levels = new CongestionLevel[SEGMENTS];
+        Arrays.fill(levels, CongestionLevel.FREE);
+        return levels;
+    }
+
+    private CongestionLevel levelOf(int segment, double slack) {
+        if (getMeanCars(segment) >= 1 && (double) speedSums[segment] / carSums[segment] < STOPPED_SPEED) {
+            return CongestionLevel.HEAVY;
+        }
+        double occupancy = getOccupancy(segment) + slack;
+        if (occupancy >= 0.8) {
+            return CongestionLevel.HEAVY;
+        }
+        if (occupancy >= 0.5) {
+            return CongestionLevel.MODERATE;
+        }
+        if (occupancy >= 0.2) {
+            return CongestionLevel.LIGHT;
+        }
+        return CongestionLevel.FREE;
+    }
+}
@@ -0,0 +1,556 @@
+package trafficbot;
+
+import java.util.Arrays;
+
+/*
+ * In-memory time series of the traffic at every tick: live cars, cars in traffic, new scans, and the
+ * congestion level of the most congested road segment (a TrafficAnalytics.CongestionLevel ordinal).
+ *
+ * Raw ticks are kept column by column in blocks of BLOCK_TICKS. The open block is plain ints. A full block
+ * is compressed, each column as zigzag varint deltas from the previous tick with a run of unchanged values
+ * stored as one count, and appended to a byte ring that drops the oldest blocks once it is full.
+ * Every tick is also folded into min/max/sum rollups per simulated second, minute and hour, each a ring of
+ * its own. All of it is allocated up front out of one memory budget, split so that each coarser level
+ * reaches further back, and nothing is allocated per tick.
+ *
+ * A range query adds up whole hours, then whole minutes and seconds, and raw ticks only at the ragged
+ * ends, so a query over days reads a few hundred buckets and decodes at most a few blocks. Where a level
+ * no longer holds an end of the range, that end is widened to the next coarser bucket that does.
+ * Recording and queries are synchronized, so queries can come from any thread.
+ */
+public class TrafficHistory implements SimulationListener {
+    // Columns
+    public static final int CARS = 0;
+    public static final int IN_TRAFFIC = 1;
+    public static final int SCANS = 2;
+    public static final int CONGESTION = 3;
+    public static final int COLUMNS = 4;
+    public static final String[] COLUMN_NAMES = { "cars", "in traffic", "scans", "congestion" };
+
+    // Rollup levels, finest first; each bucket covers 60 of the level below
+    public static final int SECONDS = 0;
+    public static final int MINUTES = 1;
+    public static final int HOURS = 2;
+    public static final String[] LEVEL_NAMES = { "second", "minute", "hour" };
+    private static final int PER_PARENT = 60;
+
+    public static final long DEFAULT_BUDGET_BYTES = 64L << 20;
+    private static final long MIN_BUDGET_BYTES = 1L << 20;
+    static final int BLOCK_TICKS = 256;
+    // Shares of the budget per rollup level, in percent; the raw blocks get the rest
+    private static final int[] LEVEL_SHARES = { 30, 15, 5 };
+    // Bytes of the budget set aside per block slot for its position and column ends
+    private static final int BLOCK_SLOT_BYTES = 8 + 4 * COLUMNS;
+    // Budget bytes per block slot, data included; blocks of a quiet intersection compress to far less
+    private static final int BYTES_PER_BLOCK = 128;
+
+    // Compressed blocks: block n starts at tick firstTick + n * BLOCK_TICKS and is held in slot n % slots
+    final private byte[] data;
+    // Position of each block in data, counted from the first byte ever written, so it only grows
+    final private long[] blockPositions;
+    // Where each column of a block ends, relative to the block's start, by slot * COLUMNS + column
+    final private int[] blockColumnEnds;
+    final private int[][] open = new int[COLUMNS][BLOCK_TICKS];
+    final private byte[] scratch = new byte[COLUMNS * BLOCK_TICKS * 5];
+    final private int[] scratchEnds = new int[COLUMNS];
+    final private int[] decoded = new int[BLOCK_TICKS];
+    final private Rollup[] rollups = new Rollup[LEVEL_NAMES.length];
+    final private int[] values = new int[COLUMNS];
+    // Level last sampled per segment, for hysteresis
+    final private TrafficAnalytics.CongestionLevel[] sampledLevels = TrafficAnalytics.newSegmentLevels();
+
+    private long firstTick = -1;
+    private long endTick;
+    private long oldestBlock;
+    private long sealedBlocks;
+    private long writePosition;
+    private long compressedBytes;
+    private int readPosition;
+
+    // Constructor with the default 64 MB budget
+    public TrafficHistory() {
+        this(DEFAULT_BUDGET_BYTES);
+    }
+
+    // Constructor for a history that never holds more than about budgetBytes
+    public TrafficHistory(long budgetBytes) {
+        if (budgetBytes < MIN_BUDGET_BYTES) {
+            throw new IllegalArgumentException("History budget must be at least " + MIN_BUDGET_BYTES + " bytes");
+        }
+        long rawBudget = budgetBytes;
+        for (int level = 0; level < rollups.length; level++) {
+            long share = budgetBytes * LEVEL_SHARES[level] / 100;
+            rollups[level] = new Rollup((int) Math.min(Integer.MAX_VALUE, share / Rollup.BYTES_PER_BUCKET));
+            rawBudget -= share;
+        }
+        // Raw blocks reach back no further than the seconds rollup, whose buckets fill the middle of a query
+        long secondsReach = (long) rollups[SECONDS].capacity() * 1000 / Constants.FRAME_DELAY / BLOCK_TICKS;
+        int slots = (int) Math.max(1, Math.min(secondsReach, rawBudget / BYTES_PER_BLOCK));
+        blockPositions = new long[slots];
+        blockColumnEnds = new int[slots * COLUMNS];
+        data = new byte[(int) Math.min(Integer.MAX_VALUE - 8, Math.max(scratch.length, rawBudget - (long) slots * BLOCK_SLOT_BYTES))];
+    }
+
+    @Override
+    // Record the tick the engine just finished
+    public void onTick(SimulationModel model, long tick) {
+        CarStore cars = model.getCarStore();
+        int inTraffic = 0;
+        for (int slot = 0; slot < cars.size(); slot++) {
+            if (cars.isInTraffic(slot)) {
+                inTraffic++;
+            }
+        }
+        TrafficAnalytics.CongestionLevel worst = model.getAnalytics().getWorstCongestion(sampledLevels);
+        record(tick, cars.size(), inTraffic, model.getScanCount(), worst.ordinal());
+    }
+
+    // Record the values of one tick
+    // Ticks are expected one after another; any other tick starts the history again from there.
+    public synchronized void record(long tick, int cars, int inTraffic, int scans, int congestion) {
+        if (firstTick < 0 || tick != endTick) {
+            restart(tick);
+        }
+        values[CARS] = cars;
+        values[IN_TRAFFIC] = inTraffic;
+        values[SCANS] = scans;
+        values[CONGESTION] = congestion;
+        int index = (int) (tick - blockStart(sealedBlocks));
+        for (int column = 0; column < COLUMNS; column++) {
+            open[column][index] = values[column];
+        }
+        endTick = tick + 1;
+        long second = secondOf(tick);
+        rollups[SECONDS].add(second, values);
+        rollups[MINUTES].add(second / PER_PARENT, values);
+        rollups[HOURS].add(second / (PER_PARENT * PER_PARENT), values);
+        if (index == BLOCK_TICKS - 1) {
+            seal();
+        }
+    }
+
+    // Min, max and mean of a column over the ticks in [fromTick, toTick); false if nothing is held there
+    public synchronized boolean query(int column, long fromTick, long toTick, Aggregate result) {
+        result.reset();
+        if (firstTick < 0) {
+            return false;
+        }
+        long from = Math.max(fromTick, firstTick);
+        long to = Math.min(toTick, endTick);
+        if (from < to) {
+            addTicks(column, from, to, result);
+        }
+        return result.getCount() > 0;
+    }
+
+    // Copy the raw values of a column for the ticks in [fromTick, toTick) into out and return how many
+    // were copied; ticks the raw blocks no longer hold are skipped, so the first is at
+    // max(fromTick, getRawStartTick())
+    public synchronized int readTicks(int column, long fromTick, long toTick, int[] out) {
+        if (firstTick < 0) {
+            return 0;
+        }
+        long from = Math.max(fromTick, getRawStartTick());
+        long to = Math.min(Math.min(toTick, endTick), from + out.length);
+        int copied = 0;
+        for (long tick = from; tick < to; ) {
+            long block = (tick - firstTick) / BLOCK_TICKS;
+            int[] blockValues = blockValues(block, column);
+            int index = (int) (tick - blockStart(block));
+            int count = (int) Math.min(BLOCK_TICKS - index, to - tick);
+            System.arraycopy(blockValues, index, out, copied, count);
+            copied += count;
+            tick += count;
+        }
+        return copied;
+    }
+
+    // Ticks held: [getFirstTick(), getEndTick()), raw from getRawStartTick()
+    public synchronized long getFirstTick() {
+        return firstTick;
+    }
+
+    public synchronized long getEndTick() {
+        return endTick;
+    }
+
+    public synchronized long getRawStartTick() {
+        return blockStart(oldestBlock);
+    }
+
+    // First tick of the oldest bucket a rollup level still holds
+    public synchronized long getRollupStartTick(int level) {
+        long bucket = rollups[level].getOldest();
+        long seconds = bucket;
+        for (int i = 0; i < level; i++) {
+            seconds *= PER_PARENT;
+        }
+        return Math.max(firstTick, firstTickOfSecond(seconds));
+    }
+
+    // Bytes of the blocks compressed since the history started, including blocks dropped since
+    public synchronized long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    // Bytes held by the arrays of the history, which do not grow after construction
+    public long getMemoryBytes() {
+        long bytes = data.length + 8L * blockPositions.length + 4L * blockColumnEnds.length
+                + 4L * COLUMNS * BLOCK_TICKS + scratch.length + 4L * decoded.length;
+        for (Rollup rollup : rollups) {
+            bytes += (long) rollup.capacity() * Rollup.BYTES_PER_BUCKET;
+        }
+        return bytes;
+    }
+
+    // Print retention and whole-history statistics per column
+    public synchronized void printSummary() {
+        long ticks = endTick - Math.max(0, firstTick);
+        System.out.printf("History: %d ticks in %.1f MB, raw from tick %d (%.2f bytes per tick compressed), "
+                + "seconds from %d, minutes from %d, hours from %d%n", ticks, getMemoryBytes() / 1048576.0,
+                getRawStartTick(), sealedBlocks == 0 ? 0.0 : (double) compressedBytes / (sealedBlocks * BLOCK_TICKS),
+                getRollupStartTick(SECONDS), getRollupStartTick(MINUTES), getRollupStartTick(HOURS));
+        Aggregate aggregate = new Aggregate();
+        for (int column = 0; column < COLUMNS; column++) {
+            if (query(column, 0, Long.MAX_VALUE, aggregate)) {
+                System.out.printf("  %-10s min %6d  max %6d  mean %10.3f%n", COLUMN_NAMES[column],
+                        aggregate.getMin(), aggregate.getMax(), aggregate.getMean());
+            }
+        }
+    }
+
+    // Record into a history of -Dtrafficbot.history=MB, if that is set
+    public static TrafficHistory attachConfigured(SimulationEngine engine) {
+        String megabytes = System.getProperty("trafficbot.history");
+        if (megabytes == null || megabytes.isEmpty()) {
+            return null;
+        }
+        TrafficHistory history = new TrafficHistory(Long.parseLong(megabytes) << 20);
+        engine.addListener(history);
+        System.out.printf("Recording traffic history in %.1f MB%n", history.getMemoryBytes() / 1048576.0);
+        return history;
+    }
+
+    // Add ticks [from, to) to the result: whole seconds from the rollups, the ragged ends from raw blocks
+    private void addTicks(int column, long from, long to, Aggregate result) {
+        long firstSecond = secondOf(from);
+        if (firstTickOfSecond(firstSecond) < from) {
+            firstSecond++;
+        }
+        long endSecond = secondOf(to);
+        long rawStart = getRawStartTick();
+        if (firstSecond >= endSecond) {
+            // Within a second or two; widened to whole seconds if the raw ticks are gone
+            if (from >= rawStart) {
+                addRaw(column, from, to, result);
+            } else {
+                addBuckets(SECONDS, column, secondOf(from), secondOf(to - 1) + 1, result);
+            }
+            return;
+        }
+        if (from >= rawStart) {
+            addRaw(column, from, firstTickOfSecond(firstSecond), result);
+        } else {
+            firstSecond--;
+        }
+        if (firstTickOfSecond(endSecond) >= rawStart) {
+            addRaw(column, firstTickOfSecond(endSecond), to, result);
+        } else {
+            endSecond++;
+        }
+        addBuckets(SECONDS, column, firstSecond, endSecond, result);
+    }
+
+    // Add buckets [first, end) of a level: whole parent buckets from the level above, the ends from this one
+    private void addBuckets(int level, int column, long first, long end, Aggregate result) {
+        Rollup rollup = rollups[level];
+        if (level == HOURS) {
+            for (long bucket = Math.max(first, rollup.getOldest()); bucket < end; bucket++) {
+                rollup.addTo(bucket, column, result);
+            }
+            return;
+        }
+        long parentFirst = Math.floorDiv(first + PER_PARENT - 1, PER_PARENT);
+        long parentEnd = Math.floorDiv(end, PER_PARENT);
+        if (parentFirst >= parentEnd) {
+            if (rollup.holds(first)) {
+                addRange(rollup, column, first, end, result);
+            } else {
+                addBuckets(level + 1, column, Math.floorDiv(first, PER_PARENT), Math.floorDiv(end - 1, PER_PARENT) + 1, result);
+            }
+            return;
+        }
+        // Each end is held entirely or not at all, as a level holds its newest buckets
+        if (first == parentFirst * PER_PARENT) {
+            // Nothing ragged at the start
+        } else if (rollup.holds(first)) {
+            addRange(rollup, column, first, parentFirst * PER_PARENT, result);
+        } else {
+            parentFirst--;
+        }
+        if (end == parentEnd * PER_PARENT) {
+            // Nothing ragged at the end
+        } else if (rollup.holds(parentEnd * PER_PARENT)) {
+            addRange(rollup, column, parentEnd * PER_PARENT, end, result);
+        } else {
+            parentEnd++;
+        }
+        addBuckets(level + 1, column, parentFirst, parentEnd, result);
+    }
+
+    private static void addRange(Rollup rollup, int column, long first, long end, Aggregate result) {
+        for (long bucket = first; bucket < end; bucket++) {
+            rollup.addTo(bucket, column, result);
+        }
+    }
+
+    // Add raw ticks [from, to), all of which the raw blocks hold
+    private void addRaw(int column, long from, long to, Aggregate result) {
+        for (long tick = from; tick < to; ) {
+            long block = (tick - firstTick) / BLOCK_TICKS;
+            int[] blockValues = blockValues(block, column);
+            int index = (int) (tick - blockStart(block));
+            int last = (int) Math.min(BLOCK_TICKS, index + (to - tick));
+            for (int i = index; i < last; i++) {
+                result.add(blockValues[i]);
+            }
+            tick += last - index;
+        }
+    }
+
+    // Values of one column of a block: the open block as it is, a sealed one decoded into a reused buffer
+    private int[] blockValues(long block, int column) {
+        if (block == sealedBlocks) {
+            return open[column];
+        }
+        int slot = (int) (block % blockPositions.length);
+        int base = (int) (blockPositions[slot] % data.length);
+        readPosition = base + (column == 0 ? 0 : blockColumnEnds[slot * COLUMNS + column - 1]);
+        int end = base + blockColumnEnds[slot * COLUMNS + column];
+        int previous = 0;
+        int i = 0;
+        while (readPosition < end) {
+            int token = readVarInt();
+            if (token == 0) {
+                int run = readVarInt() + 1;
+                Arrays.fill(decoded, i, i + run, previous);
+                i += run;
+            } else {
+                previous += (token >>> 1) ^ -(token & 1);
+                decoded[i++] = previous;
+            }
+        }
+        return decoded;
+    }
+
+    // Compress the full open block into the ring, dropping the oldest blocks it needs the room of
+    private void seal() {
+        int length = 0;
+        for (int column = 0; column < COLUMNS; column++) {
+            length = encode(open[column], length);
+            scratchEnds[column] = length;
+        }
+        // A block is never split across the end of the ring; the bytes left there are skipped
+        long position = writePosition;
+        int offset = (int) (position % data.length);
+        if (offset + length > data.length) {
+            position += data.length - offset;
+            offset = 0;
+        }
+        while (oldestBlock < sealedBlocks && (sealedBlocks - oldestBlock >= blockPositions.length
+                || blockPositions[(int) (oldestBlock % blockPositions.length)] < position + length - data.length)) {
+            oldestBlock++;
+        }
+        System.arraycopy(scratch, 0, data, offset, length);
+        int slot = (int) (sealedBlocks % blockPositions.length);
+        blockPositions[slot] = position;
+        System.arraycopy(scratchEnds, 0, blockColumnEnds, slot * COLUMNS, COLUMNS);
+        writePosition = position + length;
+        compressedBytes += length;
+        sealedBlocks++;
+    }
+
+    // Append one column of a block to the scratch buffer at the given length and return the new length
+    // Each value is the zigzag varint of its difference from the one before; a run of unchanged values is
+    // a 0 followed by the varint of the run length minus one.
+    private int encode(int[] column, int length) {
+        int previous = 0;
+        int i = 0;
+        while (i < BLOCK_TICKS) {
+            int delta = column[i] - previous;
+            if (delta == 0) {
+                int run = 1;
+                while (i + run < BLOCK_TICKS && column[i + run] == previous) {
+                    run++;
+                }
+                scratch[length++] = 0;
+                length = writeVarInt(run - 1, length);
+                i += run;
+            } else {
+                length = writeVarInt((delta << 1) ^ (delta >> 31), length);
+                previous = column[i];
+                i++;
+            }
+        }
+        return length;
+    }
+
+    private int writeVarInt(int value, int length) {
+        while ((value & ~0x7F) != 0) {
+            scratch[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        scratch[length++] = (byte) value;
+        return length;
+    }
+
+    private int readVarInt() {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[readPosition++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    // Forget everything and start again at the given tick
+    private void restart(long tick) {
+        firstTick = tick;
+        endTick = tick;
+        oldestBlock = 0;
+        sealedBlocks = 0;
+        writePosition = 0;
+        compressedBytes = 0;
+        for (Rollup rollup : rollups) {
+            rollup.clear();
+        }
+    }
+
+    private long blockStart(long block) {
+        return firstTick + block * BLOCK_TICKS;
+    }
+
+    // Simulated second a tick falls in, and the first tick of a second
+    static long secondOf(long tick) {
+        return Math.floorDiv(tick * Constants.FRAME_DELAY, 1000);
+    }
+
+    static long firstTickOfSecond(long second) {
+        return Math.floorDiv(second * 1000 + Constants.FRAME_DELAY - 1, Constants.FRAME_DELAY);
+    }
+
+    // Count, min, max and sum of the values a query covered
+    public static final class Aggregate {
+        private long count;
+        private int min;
+        private int max;
+        private long sum;
+
+        public Aggregate() {
+            reset();
+        }
+
+        public void reset() {
+            count = 0;
+            min = Integer.MAX_VALUE;
+            max = Integer.MIN_VALUE;
+            sum = 0;
+        }
+
+        void add(int value) {
+            count++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+        }
+
+        void add(long otherCount, int otherMin, int otherMax, long otherSum) {
+            count += otherCount;
+            min = Math.min(min, otherMin);
+            max = Math.max(max, otherMax);
+            sum += otherSum;
+        }
+
+        // Number of ticks covered
+        public long getCount() { return count; }
+        public int getMin() { return min; }
+        public int getMax() { return max; }
+        public long getSum() { return sum; }
+        public double getMean() { return count == 0 ? 0 : (double) sum / count; }
+    }
+
+    // Ring of min/max/sum buckets of one level, holding the newest capacity buckets
+    private static final class Rollup {
+        // Bucket number, tick count and per column min, max and sum
+        static final int BYTES_PER_BUCKET = 8 + 4 + COLUMNS * (4 + 4 + 8);
+
+        final private long[] buckets;
+        final private int[] counts;
+        final private int[] mins;
+        final private int[] maxes;
+        final private long[] sums;
+        private long newest = -1;
+
+        Rollup(int capacity) {
+            capacity = Math.max(1, capacity);
+            buckets = new long[capacity];
+            counts = new int[capacity];
+            mins = new int[capacity * COLUMNS];
+            maxes = new int[capacity * COLUMNS];
+            sums = new long[capacity * COLUMNS];
+            clear();
+        }
+
+        int capacity() {
+            return buckets.length;
+        }
+
+        void clear() {
+            Arrays.fill(buckets, -1);
+            newest = -1;
+        }
+
+        // Fold one tick into its bucket, starting the bucket afresh if its slot held an older one
+        void add(long bucket, int[] values) {
+            int slot = (int) (bucket % buckets.length);
+            int base = slot * COLUMNS;
+            if (buckets[slot] != bucket) {
+                buckets[slot] = bucket;
+                counts[slot] = 0;
+                for (int column = 0; column < COLUMNS; column++) {
+                    mins[base + column] = Integer.MAX_VALUE;
+                    maxes[base + column] = Integer.MIN_VALUE;
+                    sums[base + column] = 0;
+                }
+                newest = bucket;
+            }
+            counts[slot]++;
+            for (int column = 0; column < COLUMNS; column++) {
+                int value = values[column];
+                mins[base + column] = Math.min(mins[base + column], value);
+                maxes[base + column] = Math.max(maxes[base + column], value);
+                sums[base + column] += value;
+            }
+        }
+
+        boolean holds(long bucket) {
+            return bucket >= 0 && buckets[(int) (bucket % buckets.length)] == bucket;
+        }
+
+        // Oldest bucket that can still be held
+        long getOldest() {
+            return Math.max(0, newest - buckets.length + 1);
+        }
+
+        void addTo(long bucket, int column, Aggregate result) {
+            int slot = (int) (bucket % buckets.length);
+            if (buckets[slot] == bucket) {
+                int index = slot * COLUMNS + column;
+                result.add(counts[slot], mins[index], maxes[index], sums[index]);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package trafficbot;
+
+import java.util.Arrays;
+
+/*
+ * TrafficScenario class for the Traffic Bot Simulator
+ * This class implements the ScenarioStrategy interface and manages the traffic simulation.
+ */
+public class TrafficScenario implements ScenarioStrategy {
+    // Cars come round again until they are a minute old, so a car joins the queue every 2 seconds until
+    // about 30 share the road: enough to go from free to heavy traffic, and few enough that they never
+    // come round onto each other
+    private static final long CAR_LIFETIME_MILLIS = 60_000;
+
+    private TickScheduler scheduler;
+    private TickScheduler.Task spawnTask;
+    private TickScheduler.Task trafficMonitorTask;
+    private final TrafficAnalytics.CongestionLevel[] reportedLevels = new TrafficAnalytics.CongestionLevel[TrafficAnalytics.SEGMENTS];
+    private int nextCarId;
+
+    @Override
+    // Activate the traffic simulation scenario
+    public void activate(SimulationModel model) {
+        System.out.println("Traffic Simulation Activated!");
+        Database db = model.getDatabase();
+        if (db.getSize() > 0) {
+            db.clear(model.getTick());
+        }
+        model.clearCars();
+        nextCarId = 1;
+
+        // Add initial car on the horizontal road
+        spawnCar(model);
+
+        // Nothing reported yet: every road starts out free
+        Arrays.fill(reportedLevels, TrafficAnalytics.CongestionLevel.FREE);
+
+        // Monitor traffic conditions every second of simulated time
+        // Scheduled tasks run on the simulation thread at the start of a tick
+        scheduler = model.getScheduler();
+        trafficMonitorTask = scheduler.scheduleRepeating(Constants.TRAFFIC_MONITOR_INTERVAL, () -> reportTraffic(model));
+
+        // Perform an initial scan
+        model.checkProximityToCars();
+
+        // Spawn a new car every 2 seconds of simulated time
+        spawnTask = scheduler.scheduleRepeating(Constants.TRAFFIC_SPAWN_INTERVAL, () -> spawnCar(model));
+    }
+
+    // Add a car at the left end of the horizontal road, straight into the model's car storage
+    private void spawnCar(SimulationModel model) {
+        model.addCar(0, Constants.HORIZONTAL_ROAD_Y + Constants.LANE_OFFSET, nextCarId++, 1, Car.Direction.RIGHT);
+    }
+
+    @Override
+    // Cars spawn forever, so they are retired by age
+    public long getCarLifetimeMillis() {
+        return CAR_LIFETIME_MILLIS;
+    }
+
+    // Print the traffic status of each road segment whenever it changes, up or down
+    // based on the sliding-window occupancy of the segment
+    private void reportTraffic(SimulationModel model) {
+        TrafficAnalytics analytics = model.getAnalytics();
+        for (int segment = 0; segment < TrafficAnalytics.SEGMENTS; segment++) {
+            TrafficAnalytics.CongestionLevel level = analytics.getCongestion(segment, reportedLevels[segment]);
+            if (level != reportedLevels[segment]) {
+                System.out.println("Traffic on the " + TrafficAnalytics.SEGMENT_NAMES[segment] + " is " + level.name().toLowerCase());
+                reportedLevels[segment] = level;
+            }
+        }
+    }
+
+    @Override
+
+    //deactivate the traffic simulation scenario
+    public void deactivate() {
+        if (scheduler != null) {
+            scheduler.cancel(spawnTask);
+            scheduler.cancel(trafficMonitorTask);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,287 @@
+package trafficbot;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Write-behind persistence of scans and traffic levels to a JDBC database.
+ * The simulation thread only copies each tick's events into a bounded in-memory queue, so a slow or
+ * unreachable database never delays a tick; when the queue is full new events are dropped and counted.
+ * A background writer drains the queue in batched inserts and commits everything it drained in one
+ * transaction (group commit), whenever batchSize events are waiting or flushMillis have passed.
+ * Events are only removed from the queue once their transaction has committed, so a failed write is
+ * retried on the next flush instead of being lost.
+ *
+ * Tables (created if missing):
+ *   traffic_data(id, timestamp, car_count, traffic_level)   same as the Python loggers, one sample
+ *                                                          per simulated second of the cars the drones
+ *                                                          see, labelled with the loggers' thresholds
+ *   scan_events(id, timestamp, tick, car_id, drone_id)      one row per scan
+ */
+public class TrafficStore implements SimulationListener, AutoCloseable {
+    private static final byte TYPE_SCAN = 1;
+    private static final byte TYPE_TRAFFIC = 2;
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1 << 16;
+    public static final int DEFAULT_BATCH_SIZE = 512;
+    public static final long DEFAULT_FLUSH_MILLIS = 250;
+    // A traffic sample is taken every simulated second
+    private static final int SAMPLE_TICKS = 1000 / Constants.FRAME_DELAY;
+
+    // Same text as SQLite's CURRENT_TIMESTAMP, so rows written here sort with rows from the Python logger
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+
+    private final String url;
+    private final int batchSize;
+    private final long flushNanos;
+    private final Thread writer;
+    private volatile boolean running = true;
+    // Set while writes are failing, so an outage is reported once rather than on every retry
+    private boolean failing;
+    private Connection connection;
+    private PreparedStatement insertScan;
+    private PreparedStatement insertTraffic;
+
+    // Queue of events; written only by the simulation thread, read only by the writer
+    private final int capacity;
+    private final int mask;
+    private final byte[] types;
+    private final long[] ticks;
+    private final long[] times;
+    private final int[] firsts;
+    private final int[] others;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    // Counters
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    // Constructor with the default queue, batch size and flush interval
+    public TrafficStore(String url) throws SQLException {
+        this(url, DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_MILLIS);
+    }
+
+    // Constructor connects, creates the tables and starts the writer thread
+    // The queue capacity is rounded up to a power of two.
+    public TrafficStore(String url, int queueCapacity, int batchSize, long flushMillis) throws SQLException {
+        if (queueCapacity < 1 || batchSize < 1 || flushMillis < 1) {
+            throw new IllegalArgumentException("Queue capacity, batch size and flush interval must be positive");
+        }
+        this.url = url;
+        int size = 1;
+        while (size < queueCapacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = capacity - 1;
+        this.batchSize = Math.min(batchSize, capacity);
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+        this.types = new byte[capacity];
+        this.ticks = new long[capacity];
+        this.times = new long[capacity];
+        this.firsts = new int[capacity];
+        this.others = new int[capacity];
+        connect();
+        this.writer = new Thread(this::writeLoop, "traffic-store");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Counters for monitoring
+    public long getStored() { return stored.get(); }
+    public long getDropped() { return dropped.get(); }
+    public long getCommits() { return commits.get(); }
+    public long getFailures() { return failures.get(); }
+    public int getQueued() { return (int) (tail.get() - head.get()); }
+
+    @Override
+    // Queue the tick's scans and, once per simulated second, a traffic sample; never blocks
+    public void onTick(SimulationModel model, long tick) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < model.getScanCount(); i++) {
+            offer(TYPE_SCAN, tick, now, model.getScanCarId(i), model.getScanDroneId(i));
+        }
+        if (tick % SAMPLE_TICKS == 0) {
+            offer(TYPE_TRAFFIC, tick, now, model.countCarsInView(), 0);
+        }
+    }
+
+    private void offer(byte type, long tick, long time, int first, int other) {
+        long position = tail.get();
+        long queued = position - head.get();
+        if (queued == capacity) {
+            dropped.incrementAndGet();
+            return;
+        }
+        int index = (int) (position & mask);
+        types[index] = type;
+        ticks[index] = tick;
+        times[index] = time;
+        firsts[index] = first;
+        others[index] = other;
+        tail.lazySet(position + 1);
+        // Wake the writer as soon as a full batch is waiting rather than at the next flush
+        if (queued + 1 == batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    // Writer thread: flush whenever a batch is waiting or the flush interval has passed
+    private void writeLoop() {
+        long nextFlush = System.nanoTime() + flushNanos;
+        while (running) {
+            long wait = nextFlush - System.nanoTime();
+            // After a failed write wait out the whole interval, however much is queued
+            if (wait > 0 && (failing || getQueued() < batchSize)) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            flush();
+            nextFlush = System.nanoTime() + flushNanos;
+        }
+        flush();
+    }
+
+    // Write everything queued so far in one transaction; on failure the events stay queued for the next try
+    private void flush() {
+        long start = head.get();
+        long end = tail.get();
+        if (start == end) {
+            return;
+        }
+        try {
+            if (connection == null) {
+                connect();
+            }
+            for (long position = start; position < end; position++) {
+                int index = (int) (position & mask);
+                String timestamp = TIMESTAMP.format(Instant.ofEpochMilli(times[index]));
+                if (types[index] == TYPE_SCAN) {
+                    insertScan.setString(1, timestamp);
+                    insertScan.setLong(2, ticks[index]);
+                    insertScan.setInt(3, firsts[index]);
+                    insertScan.setInt(4, others[index]);
+                    insertScan.addBatch();
+                } else {
+                    insertTraffic.setString(1, timestamp);
+                    insertTraffic.setInt(2, firsts[index]);
+                    insertTraffic.setString(3, IngestServer.trafficLevel(firsts[index]));
+                    insertTraffic.addBatch();
+                }
+                // Send each batch as it fills so the driver never holds more than batchSize rows
+                if ((position - start + 1) % batchSize == 0) {
+                    insertScan.executeBatch();
+                    insertTraffic.executeBatch();
+                }
+            }
+            insertScan.executeBatch();
+            insertTraffic.executeBatch();
+            connection.commit();
+            head.lazySet(end);
+            stored.addAndGet(end - start);
+            commits.incrementAndGet();
+            if (failing) {
+                failing = false;
+                System.out.println("Writing to " + url + " again");
+            }
+        } catch (SQLException e) {
+            failures.incrementAndGet();
+            if (!failing) {
+                failing = true;
+                System.out.println("Could not write to " + url + " (will retry): " + e.getMessage());
+            }
+            disconnect();
+        }
+    }
+
+    private void connect() throws SQLException {
+        connection = DriverManager.getConnection(url);
+        try {
+            connection.setAutoCommit(false);
+            // AUTO_INCREMENT for MySQL and most other databases, AUTOINCREMENT for SQLite
+            String autoId = connection.getMetaData().getDatabaseProductName().equals("SQLite")
+                    ? "INTEGER PRIMARY KEY AUTOINCREMENT" : "INTEGER PRIMARY KEY AUTO_INCREMENT";
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS traffic_data ("
+                        + "id " + autoId + ", "
+                        + "timestamp DATETIME DEFAULT CURRENT_TIMESTAMP, "
+                        + "car_count INTEGER NOT NULL, "
+                        + "traffic_level TEXT NOT NULL)");
+                statement.execute("CREATE TABLE IF NOT EXISTS scan_events ("
+                        + "id " + autoId + ", "
+                        + "timestamp DATETIME DEFAULT CURRENT_TIMESTAMP, "
+                        + "tick BIGINT NOT NULL, "
+                        + "car_id INTEGER NOT NULL, "
+                        + "drone_id INTEGER NOT NULL)");
+            }
+            connection.commit();
+            insertScan = connection.prepareStatement(
+                    "INSERT INTO scan_events (timestamp, tick, car_id, drone_id) VALUES (?, ?, ?, ?)");
+            insertTraffic = connection.prepareStatement(
+                    "INSERT INTO traffic_data (timestamp, car_count, traffic_level) VALUES (?, ?, ?)");
+        } catch (SQLException e) {
+            disconnect();
+            throw e;
+        }
+    }
+
+    private void disconnect() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // The connection is being dropped anyway
+            }
+        }
+        connection = null;
+        insertScan = null;
+        insertTraffic = null;
+    }
+
+    @Override
+    // Stop the writer after a last flush of everything queued, and close the connection
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        disconnect();
+    }
+
+    // Start storing to the JDBC URL named by the trafficbot.store system property, if it is set
+    // trafficbot.store.batch and trafficbot.store.flush (milliseconds) override the batch size and flush interval.
+    // Returns the store so the caller can close it, or null.
+    public static TrafficStore attachConfigured(SimulationEngine engine) {
+        String url = System.getProperty("trafficbot.store");
+        if (url == null || url.isEmpty()) {
+            return null;
+        }
+        try {
+            TrafficStore store = new TrafficStore(url, DEFAULT_QUEUE_CAPACITY,
+                    Integer.getInteger("trafficbot.store.batch", DEFAULT_BATCH_SIZE),
+                    Long.getLong("trafficbot.store.flush", DEFAULT_FLUSH_MILLIS));
+            engine.addListener(store);
+            System.out.println("Storing scans and traffic levels in " + url);
+            return store;
+        } catch (SQLException e) {
+            System.out.println("Could not open " + url + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package trafficbot;
+
+/*
+ * The part of the world shown in the game panel: a top-left corner in world pixels and a zoom level.
+ * Zoom level z shows the world at scale 2^z, so background chunks rasterized at one level can be reused
+ * for as long as the view stays at it. The view may be dragged half a screen past the world's edges.
+ */
+public class Viewport {
+    public static final int MIN_ZOOM = -4;
+    public static final int MAX_ZOOM = 1;
+
+    private double left;
+    private double top;
+    private int zoomLevel;
+
+    // Whether the view is the original one: the top-left of the world at full size
+    public boolean isHome() {
+        return zoomLevel == 0 && left == 0 && top == 0;
+    }
+
+    public void reset() {
+        left = 0;
+        top = 0;
+        zoomLevel = 0;
+    }
+
+    public int getZoomLevel() {
+        return zoomLevel;
+    }
+
+    // Screen pixels per world pixel
+    public double getScale() {
+        return Math.scalb(1.0, zoomLevel);
+    }
+
+    public double getLeft() {
+        return left;
+    }
+
+    public double getTop() {
+        return top;
+    }
+
+    // World coordinates under a screen position
+    public double toWorldX(int screenX) {
+        return left + screenX / getScale();
+    }
+
+    public double toWorldY(int screenY) {
+        return top + screenY / getScale();
+    }
+
+    // Move the view by a drag of dx, dy screen pixels
+    public void pan(int dx, int dy, CityMap map, int screenWidth, int screenHeight) {
+        left -= dx / getScale();
+        top -= dy / getScale();
+        clamp(map, screenWidth, screenHeight);
+    }
+
+    // Zoom in (positive steps) or out around a screen position, keeping the world point under it in place
+    public void zoomAt(int screenX, int screenY, int steps, CityMap map, int screenWidth, int screenHeight) {
+        int level = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoomLevel + steps));
+        if (level == zoomLevel) {
+            return;
+        }
+        double worldX = toWorldX(screenX);
+        double worldY = toWorldY(screenY);
+        zoomLevel = level;
+        left = worldX - screenX / getScale();
+        top = worldY - screenY / getScale();
+        clamp(map, screenWidth, screenHeight);
+    }
+
+    private void clamp(CityMap map, int screenWidth, int screenHeight) {
+        double viewWidth = screenWidth / getScale();
+        double viewHeight = screenHeight / getScale();
+        left = Math.max(-viewWidth / 2, Math.min(map.getWidth() - viewWidth / 2, left));
+        top = Math.max(-viewHeight / 2, Math.min(map.getHeight() - viewHeight / 2, top));
+    }
+}
@@ -0,0 +1,112 @@
+package trafficbot;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/*
+ * Renderer for maps larger than the window, or for a panned or zoomed view.
+ * Each frame copies the cached background chunks under the view and draws the cars in the snapshot's grid
+ * cells under it, so frame time and memory follow what is on screen rather than the size of the city.
+ */
+public class ViewportRenderer {
+    // Cars smaller than this on screen are drawn as plain squares
+    private static final int SMALLEST_SPRITE = 5;
+
+    private final SpriteCache sprites;
+    private ChunkCache chunks;
+    private int drawnCars;
+
+    // Constructor for a renderer starting out on the given map
+    public ViewportRenderer(CityMap map) {
+        this.sprites = new SpriteCache();
+        this.chunks = new ChunkCache(map);
+    }
+
+    public ChunkCache getChunks() {
+        return chunks;
+    }
+
+    // Cars drawn in the last frame
+    public int getDrawnCars() {
+        return drawnCars;
+    }
+
+    // Draw the part of a frame the viewport shows onto a screen area of the given size
+    public void paint(Graphics2D g2d, FrameSnapshot snapshot, Viewport viewport, int screenWidth, int screenHeight) {
+        CityMap map = snapshot.getMap();
+        if (chunks.getMap() != map) {
+            chunks = new ChunkCache(map);
+        }
+        double scale = viewport.getScale();
+        double left = viewport.getLeft();
+        double top = viewport.getTop();
+
+        // Background chunks overlapping the view
+        int zoomLevel = viewport.getZoomLevel();
+        int span = ChunkCache.span(zoomLevel);
+        int firstColumn = (int) Math.floor(left / span);
+        int firstRow = (int) Math.floor(top / span);
+        int lastColumn = (int) Math.floor((left + screenWidth / scale) / span);
+        int lastRow = (int) Math.floor((top + screenHeight / scale) / span);
+        g2d.setColor(Colors.GRASS_COLOR);
+        g2d.fillRect(0, 0, screenWidth, screenHeight);
+        for (int row = Math.max(0, firstRow); row <= lastRow; row++) {
+            for (int column = Math.max(0, firstColumn); column <= lastColumn; column++) {
+                if ((long) column * span >= map.getWidth() || (long) row * span >= map.getHeight()) {
+                    continue;
+                }
+                int screenX = (int) Math.round((column * (double) span - left) * scale);
+                int screenY = (int) Math.round((row * (double) span - top) * scale);
+                g2d.drawImage(chunks.get(zoomLevel, column, row), screenX, screenY, null);
+            }
+        }
+
+        // Cars whose sprite overlaps the view, grouped by state like the full-window renderer
+        // Only the snapshot's cells under the view are read; the cells of one row are one range per state.
+        int viewLeft = (int) Math.floor(left) - Constants.CAR_SIZE;
+        int viewTop = (int) Math.floor(top) - Constants.CAR_SIZE;
+        int viewRight = (int) Math.ceil(left + screenWidth / scale) + 1;
+        int viewBottom = (int) Math.ceil(top + screenHeight / scale) + 1;
+        int firstCellColumn = snapshot.getCellColumn(viewLeft);
+        int endCellColumn = snapshot.getCellColumn(viewRight) + 1;
+        int firstCellRow = snapshot.getCellRow(viewTop);
+        int lastCellRow = snapshot.getCellRow(viewBottom);
+        int drawn = 0;
+        int size = Math.max(1, (int) Math.round(Constants.CAR_SIZE * scale));
+        for (int state = 0; state < SpriteCache.CAR_STATES; state++) {
+            BufferedImage sprite = sprites.getCarSprite(state);
+            g2d.setColor(SpriteCache.getCarColor(state));
+            for (int row = firstCellRow; row <= lastCellRow; row++) {
+                int end = snapshot.getCellStart(state, endCellColumn, row);
+                for (int i = snapshot.getCellStart(state, firstCellColumn, row); i < end; i++) {
+                    int slot = snapshot.getCellSlot(i);
+                    int x = snapshot.getCarX(slot);
+                    int y = snapshot.getCarY(slot);
+                    if (x < viewLeft || y < viewTop || x > viewRight || y > viewBottom) {
+                        continue;
+                    }
+                    drawn++;
+                    int screenX = (int) Math.round((x - left) * scale);
+                    int screenY = (int) Math.round((y - top) * scale);
+                    if (size < SMALLEST_SPRITE) {
+                        // A few pixels across, the round sprite would only be a blurred square anyway
+                        g2d.fillRect(screenX, screenY, size, size);
+                    } else {
+                        g2d.drawImage(sprite, screenX, screenY, size, size, null);
+                    }
+                }
+            }
+        }
+        drawnCars = drawn;
+
+        // Drones are few, so just skip the ones out of view
+        int droneSize = Math.max(1, (int) Math.round(Constants.DRONE_SIZE * scale));
+        for (int i = 0; i < snapshot.getDroneCount(); i++) {
+            int screenX = (int) Math.round((snapshot.getDroneX(i) - left) * scale);
+            int screenY = (int) Math.round((snapshot.getDroneY(i) - top) * scale);
+            if (screenX + droneSize >= 0 && screenY + droneSize >= 0 && screenX < screenWidth && screenY < screenHeight) {
+                g2d.drawImage(sprites.getDroneSprite(), screenX, screenY, droneSize, droneSize, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package trafficbot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Checks that the Vector API and scalar distance kernels agree with each other and with a plain
+ * squared-distance test, on lengths that do and do not fill whole vectors.
+ */
+public class DistanceKernelTest {
+    private static final int[] LIMITS = { 1, 2, 2500, 2551, 10000, DistanceKernel.limitFor(DistanceKernel.MAX_OFFSET) };
+
+    @Test
+    public void vectorKernelIsLoadedWithTheModule() {
+        assertNotNull(DistanceKernels.vector(), "tests run with --add-modules jdk.incubator.vector");
+    }
+
+    @Test
+    public void kernelsMatchAPlainDistanceTest() {
+        DistanceKernel vector = DistanceKernels.vector();
+        Random random = new Random(24);
+        for (int count = 0; count <= 80; count++) {
+            for (int round = 0; round < 20; round++) {
+                // Mostly nearby points, with a few far off and past the edges
+                int spread = round % 4 == 0 ? 100_000 : 200;
+                int[] xs = randomCoordinates(random, count, spread);
+                int[] ys = randomCoordinates(random, count, spread);
+                int x = random.nextInt(200) - 100;
+                int y = random.nextInt(200) - 100;
+                for (int limit : LIMITS) {
+                    int[] expected = expectedWithin(xs, ys, count, x, y, limit);
+                    assertEquals(expected.length, DistanceKernels.SCALAR.countWithin(xs, ys, count, x, y, limit));
+                    assertEquals(expected.length, vector.countWithin(xs, ys, count, x, y, limit));
+                    assertArrayEquals(expected, collect(DistanceKernels.SCALAR, xs, ys, count, x, y, limit));
+                    assertArrayEquals(expected, collect(vector, xs, ys, count, x, y, limit));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void limitMatchesStrictlyCloserThanAFractionalDistance() {
+        double distance = 50.5;
+        int limit = DistanceKernel.limitFor(distance);
+        for (int dx = 0; dx <= 60; dx++) {
+            for (int dy = 0; dy <= 60; dy++) {
+                boolean closer = dx * dx + dy * dy < distance * distance;
+                assertEquals(closer, ScalarDistanceKernel.isWithin(dx, dy, 0, 0, limit), dx + "," + dy);
+            }
+        }
+    }
+
+    @Test
+    public void collectWritesFromTheOffset() {
+        int[] xs = new int[40];
+        int[] ys = new int[40];
+        int[] out = new int[50];
+        Arrays.fill(out, -1);
+        int found = DistanceKernels.vector().collectWithin(xs, ys, xs.length, 0, 0, 1, out, 10);
+        assertEquals(40, found);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(-1, out[i]);
+        }
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i, out[10 + i]);
+        }
+    }
+
+    private static int[] randomCoordinates(Random random, int count, int spread) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextInt(2 * spread) - spread;
+        }
+        return values;
+    }
+
+    // Indexes of the points strictly inside the limit, computed in long without clamping
+    private static int[] expectedWithin(int[] xs, int[] ys, int count, int x, int y, int limit) {
+        int[] within = new int[count];
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            long dx = xs[i] - x;
+            long dy = ys[i] - y;
+            if (dx * dx + dy * dy < limit) {
+                within[found++] = i;
+            }
+        }
+        return Arrays.copyOf(within, found);
+    }
+
+    private static int[] collect(DistanceKernel kernel, int[] xs, int[] ys, int count, int x, int y, int limit) {
+        int[] out = new int[count];
+        int found = kernel.collectWithin(xs, ys, count, x, y, limit, out, 0);
+        return Arrays.copyOf(out, found);
+    }
+}
@@ -0,0 +1,94 @@
+package trafficbot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Checks that neighbour counts and radius queries give the same answers with either distance kernel as
+ * a brute-force pass over every car, including after cars move and are removed.
+ */
+public class SpatialGridTest {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+
+    @Test
+    public void kernelsGiveTheSameNeighbourCountsAndRadiusQueries() {
+        Random random = new Random(420);
+        CarStore cars = new CarStore();
+        for (int id = 1; id <= 3000; id++) {
+            cars.add(random.nextInt(WIDTH), random.nextInt(HEIGHT), id, 1 + random.nextInt(3),
+                    Car.Direction.values()[random.nextInt(4)]);
+        }
+        SpatialGrid scalar = new SpatialGrid(cars, WIDTH, HEIGHT, 50, DistanceKernels.SCALAR);
+        SpatialGrid vector = new SpatialGrid(cars, WIDTH, HEIGHT, 50, DistanceKernels.vector());
+        for (int slot = 0; slot < cars.size(); slot++) {
+            scalar.insert(slot);
+            vector.insert(slot);
+        }
+
+        for (int step = 0; step < 5; step++) {
+            assertSameAnswers(cars, scalar, vector, 50.5);
+            assertSameAnswers(cars, scalar, vector, 30);
+            // Move every car and drop a few, the way the model keeps the grid in step
+            for (int slot = 0; slot < cars.size(); slot++) {
+                cars.move(slot);
+                scalar.update(slot);
+                vector.update(slot);
+            }
+            for (int i = 0; i < 50; i++) {
+                int slot = random.nextInt(cars.size());
+                scalar.remove(slot);
+                vector.remove(slot);
+                int moved = cars.remove(slot);
+                if (moved >= 0) {
+                    scalar.relabel(moved, slot);
+                    vector.relabel(moved, slot);
+                }
+            }
+        }
+    }
+
+    private static void assertSameAnswers(CarStore cars, SpatialGrid scalar, SpatialGrid vector, double distance) {
+        for (int slot = 0; slot < cars.size(); slot++) {
+            int expected = bruteForce(cars, cars.getX(slot), cars.getY(slot), distance).length - 1;
+            assertEquals(expected, scalar.countNeighbours(slot, distance));
+            assertEquals(expected, vector.countNeighbours(slot, distance));
+        }
+        for (int x = 0; x <= WIDTH; x += 37) {
+            for (int y = 0; y <= HEIGHT; y += 41) {
+                int[] expected = bruteForce(cars, x, y, distance);
+                assertArrayEquals(expected, sortedResults(scalar, x, y, distance));
+                assertArrayEquals(expected, sortedResults(vector, x, y, distance));
+            }
+        }
+    }
+
+    // Slots strictly closer than distance to (x, y), checked against every car
+    private static int[] bruteForce(CarStore cars, int x, int y, double distance) {
+        int[] within = new int[cars.size()];
+        int found = 0;
+        for (int slot = 0; slot < cars.size(); slot++) {
+            double dx = x - cars.getX(slot);
+            double dy = y - cars.getY(slot);
+            if (dx * dx + dy * dy < distance * distance) {
+                within[found++] = slot;
+            }
+        }
+        return Arrays.copyOf(within, found);
+    }
+
+    private static int[] sortedResults(SpatialGrid grid, int x, int y, double distance) {
+        int found = grid.queryRadius(x, y, distance);
+        int[] slots = new int[found];
+        for (int i = 0; i < found; i++) {
+            slots[i] = grid.getResult(i);
+        }
+        Arrays.sort(slots);
+        return slots;
+    }
+}
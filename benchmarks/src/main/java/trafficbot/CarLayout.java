@@ -0,0 +1,52 @@
+package trafficbot;
+
+import java.util.Random;
+
+/*
+ * Car layouts used by the benchmarks.
+ * Each layout fills a model with a given number of cars from a fixed seed, so runs are comparable.
+ */
+public enum CarLayout {
+    // Cars scattered evenly over the whole window
+    UNIFORM,
+    // Cars in the lanes of the horizontal and vertical roads, as the scenarios place them
+    ROADS,
+    // Cars bunched around the intersection, the worst case for the traffic check
+    CLUSTERED;
+
+    private static final long SEED = 420L;
+
+    // Add carCount cars to the model in this layout
+    public void populate(SimulationModel model, int carCount) {
+        Random random = new Random(SEED);
+        for (int id = 1; id <= carCount; id++) {
+            int speed = 1 + random.nextInt(3);
+            switch (this) {
+                case UNIFORM -> model.addCar(random.nextInt(Constants.WINDOW_WIDTH), random.nextInt(Constants.WINDOW_HEIGHT),
+                        id, speed, Car.Direction.values()[random.nextInt(4)]);
+                case ROADS -> {
+                    if (random.nextBoolean()) {
+                        boolean right = random.nextBoolean();
+                        model.addCar(random.nextInt(Constants.WINDOW_WIDTH), Constants.HORIZONTAL_ROAD_Y + Constants.LANE_OFFSET,
+                                id, speed, right ? Car.Direction.RIGHT : Car.Direction.LEFT);
+                    } else {
+                        boolean down = random.nextBoolean();
+                        model.addCar(Constants.VERTICAL_ROAD_X + Constants.LANE_OFFSET, random.nextInt(Constants.WINDOW_HEIGHT),
+                                id, speed, down ? Car.Direction.DOWN : Car.Direction.UP);
+                    }
+                }
+                case CLUSTERED -> {
+                    int centerX = Constants.VERTICAL_ROAD_X + Constants.ROAD_WIDTH / 2;
+                    int centerY = Constants.HORIZONTAL_ROAD_Y + Constants.ROAD_WIDTH / 2;
+                    int x = clamp(centerX + (int) (random.nextGaussian() * Constants.ROAD_WIDTH), Constants.WINDOW_WIDTH);
+                    int y = clamp(centerY + (int) (random.nextGaussian() * Constants.ROAD_WIDTH), Constants.WINDOW_HEIGHT);
+                    model.addCar(x, y, id, speed, Car.Direction.values()[random.nextInt(4)]);
+                }
+            }
+        }
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(max, value));
+    }
+}
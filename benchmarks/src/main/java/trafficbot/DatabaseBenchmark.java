@@ -0,0 +1,56 @@
+package trafficbot;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Benchmark for Database.addCar.
+ * Each operation clears the database and records carCount scans, about half of them repeats,
+ * which is what a drone circling the same cars produces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatabaseBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    public int carCount;
+
+    private int[] scans;
+    // A quiet instance, so the benchmark measures the ID set rather than console output
+    private Database db;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(420L);
+        scans = new int[carCount];
+        for (int i = 0; i < carCount; i++) {
+            scans[i] = 1 + random.nextInt(Math.max(1, carCount / 2));
+        }
+        db = Database.create();
+    }
+
+    @Benchmark
+    public int addCar() {
+        db.clear(0);
+        for (int id : scans) {
+            db.addCar(id);
+        }
+        return db.getSize();
+    }
+}
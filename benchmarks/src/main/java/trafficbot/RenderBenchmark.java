@@ -0,0 +1,75 @@
+package trafficbot;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Benchmark for GamePanel.paintComponent.
+ * Renders frames offscreen into a BufferedImage, so it runs headless: once forcing a full redraw,
+ * and once after a tick has moved the cars and published a new frame, which redraws only the tiles
+ * that changed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    public int carCount;
+
+    @Param({"UNIFORM", "ROADS", "CLUSTERED"})
+    public CarLayout layout;
+
+    private SimulationModel model;
+    private GamePanel panel;
+    private BufferedImage frame;
+    private Graphics2D graphics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        model = new SimulationModel();
+        layout.populate(model, carCount);
+        model.updateTrafficStatus();
+        panel = new GamePanel(model);
+        panel.setSize(Constants.WINDOW_WIDTH, Constants.WINDOW_HEIGHT);
+        frame = new BufferedImage(Constants.WINDOW_WIDTH, Constants.WINDOW_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        graphics = frame.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage renderFrame() {
+        panel.invalidateFrame();
+        panel.paintComponent(graphics);
+        return frame;
+    }
+
+    @Benchmark
+    public BufferedImage renderFrameAfterMove() {
+        model.moveCars();
+        panel.publishFrame();
+        panel.paintComponent(graphics);
+        return frame;
+    }
+}
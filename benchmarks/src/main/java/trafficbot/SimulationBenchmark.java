@@ -0,0 +1,63 @@
+package trafficbot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Benchmarks for the per-tick phases of SimulationModel.
+ * Each benchmark runs one phase once over a model filled with carCount cars in the given layout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+// With the Vector API module the grid runs the vector distance kernel; add -jvmArgsAppend -Dtrafficbot.vector=false
+// to measure the scalar one
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "--add-modules", "jdk.incubator.vector" })
+public class SimulationBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    public int carCount;
+
+    @Param({"UNIFORM", "ROADS", "CLUSTERED"})
+    public CarLayout layout;
+
+    private SimulationModel model;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        model = new SimulationModel();
+        layout.populate(model, carCount);
+        // Put the drone over the intersection so the scan has cars to look at
+        model.getDrone().setPosition(Constants.VERTICAL_ROAD_X + Constants.LANE_OFFSET,
+                Constants.HORIZONTAL_ROAD_Y + Constants.LANE_OFFSET);
+        Database.clearCars();
+    }
+
+    @Benchmark
+    public void moveCars() {
+        model.moveCars();
+    }
+
+    @Benchmark
+    public void updateTrafficStatus() {
+        model.updateTrafficStatus();
+    }
+
+    @Benchmark
+    public void checkProximityToCars() {
+        model.checkProximityToCars();
+    }
+}